@@ -0,0 +1,106 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.index.EntityColumns;
+import com.example.swapi.index.SortIndex;
+import com.example.swapi.index.TrigramIndex;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.UrlDictionary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, fully loaded view of every entity of one type at a point in time.
+ * <p>
+ * The entity objects are kept as row payloads; sorting and searching run on the primitive
+ * {@link EntityColumns} and the indexes built from them, and only the rows of a requested page are mapped
+ * back to entities. The snapshot holds its own copies of the entities, whose repeated relationship URLs are
+ * encoded once into the snapshot's own {@link UrlDictionary}.
+ * <p>
+ * The {@linkplain #getVersion() version} orders the snapshots of one process. What identifies the data
+ * across restarts and replicas, for validators and cursors, is the {@linkplain #getContentHash() content hash}.
+ */
+public class EntitySnapshot<T extends BaseEntity> {
+
+    private final EntityType type;
+    private final List<T> entities;
+    private final long version;
+    private final long contentHash;
+    private final Instant loadedAt;
+    private final EntityColumns columns;
+    private final SortIndex sortIndex;
+    private final TrigramIndex searchIndex;
+    private final Map<String, Integer> rowsByUrl;
+    private final UrlDictionary urls;
+    private final boolean restored;
+
+    public EntitySnapshot(EntityType type, List<T> entities, long version, Instant loadedAt) {
+        this(type, entities, version, loadedAt, false);
+    }
+
+    /**
+     * @param restored whether the entities were read back from a persisted file rather than loaded from upstream
+     */
+    public EntitySnapshot(EntityType type, List<T> entities, long version, Instant loadedAt, boolean restored) {
+        this(type, entities, version, SnapshotFileStore.contentHash(entities), loadedAt, restored);
+    }
+
+    /**
+     * @param contentHash the {@link SnapshotFileStore#contentHash} of {@code entities}, when it is already known
+     */
+    @SuppressWarnings("unchecked")
+    public EntitySnapshot(EntityType type, List<T> entities, long version, long contentHash, Instant loadedAt,
+                          boolean restored) {
+        this.type = type;
+        this.restored = restored;
+        this.version = version;
+        this.contentHash = contentHash;
+        this.loadedAt = loadedAt;
+        this.urls = new UrlDictionary();
+        // the decoded entities may be shared with other subscribers, so the snapshot keeps encoded copies
+        List<T> encoded = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            encoded.add((T) entity.withEncodedUrls(urls));
+        }
+        this.entities = Collections.unmodifiableList(encoded);
+        this.columns = EntityColumns.of(this.entities);
+        this.sortIndex = SortIndex.build(columns);
+        this.searchIndex = TrigramIndex.build(columns);
+        this.rowsByUrl = new HashMap<>(this.entities.size() * 4 / 3 + 1);
+        for (int row = 0; row < this.entities.size(); row++) {
+            String url = this.entities.get(row).getUrl();
+            if (url != null) {
+                rowsByUrl.putIfAbsent(url, row);
+            }
+        }
+    }
+
+    public EntityType getType() { return type; }
+    public List<T> getEntities() { return entities; }
+    public long getVersion() { return version; }
+    public long getContentHash() { return contentHash; }
+    public Instant getLoadedAt() { return loadedAt; }
+    public EntityColumns getColumns() { return columns; }
+    public SortIndex getSortIndex() { return sortIndex; }
+    public TrigramIndex getSearchIndex() { return searchIndex; }
+    public boolean isRestored() { return restored; }
+    public UrlDictionary getUrls() { return urls; }
+
+    /**
+     * The entity with the given SWAPI URL, or {@code null} if this snapshot has none.
+     */
+    public T findByUrl(String url) {
+        Integer row = url == null ? null : rowsByUrl.get(url);
+        return row == null ? null : entities.get(row);
+    }
+
+    public Duration age(Instant now) {
+        return Duration.between(loadedAt, now);
+    }
+}
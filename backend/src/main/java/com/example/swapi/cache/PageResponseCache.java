@@ -0,0 +1,91 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of fully computed {@link PageResponse}s.
+ * <p>
+ * Entries are keyed by the query parameters plus the snapshot version they were computed from. Weight is
+ * the number of entities held by a cached page, so a few huge pages cannot crowd out many small ones.
+ */
+@Component
+public class PageResponseCache {
+
+    private final VersionedLruCache<Key, PageResponse<?>> entries;
+
+    public PageResponseCache(@Value("${app.page-cache.max-entries:1000}") int maxEntries,
+                             @Value("${app.page-cache.max-weight:100000}") long maxWeight) {
+        this.entries = new VersionedLruCache<>(maxEntries, maxWeight, PageResponseCache::weigh, response -> { });
+    }
+
+    /**
+     * Returns the cached page for the given query, computing and caching it on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> PageResponse<T> get(EntitySnapshot<T> snapshot, int page, int size, String search,
+                                                      SortKey sortKey, SortDirection direction,
+                                                      Supplier<PageResponse<T>> compute) {
+        if (!entries.isEnabled()) {
+            return compute.get();
+        }
+
+        Key key = new Key(page, size, search, sortKey, direction);
+        PageResponse<T> cached = (PageResponse<T>) entries.get(snapshot.getType(), snapshot.getVersion(), key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // computed outside the lock, two concurrent misses for the same key simply race to put the same value
+        PageResponse<T> response = compute.get();
+        entries.put(snapshot.getType(), snapshot.getVersion(), key, response);
+        return response;
+    }
+
+    private static long weigh(PageResponse<?> response) {
+        // one unit for the page itself so empty pages still count
+        return 1 + (response.getContent() == null ? 0 : response.getContent().size());
+    }
+
+    public Map<String, Object> stats() {
+        return entries.stats();
+    }
+
+    private static final class Key {
+        private final int page;
+        private final int size;
+        private final String search;
+        private final SortKey sortKey;
+        private final SortDirection direction;
+
+        private Key(int page, int size, String search, SortKey sortKey, SortDirection direction) {
+            this.page = page;
+            this.size = size;
+            this.search = search;
+            this.sortKey = sortKey;
+            this.direction = direction;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return page == other.page && size == other.size && Objects.equals(search, other.search)
+                    && sortKey == other.sortKey && direction == other.direction;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(page, size, search, sortKey, direction);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.BaseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON bodies of list pages, keyed by snapshot version and normalized query string.
+ * <p>
+ * Bodies are held in read-only direct buffers that are shared by every response writing them, so a hit
+ * costs neither serialization nor a copy. A gzip variant is compressed in the background once a body is
+ * cached; until it is ready, gzip-capable clients get the identity body.
+ */
+@Component
+public class SerializedPageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializedPageCache.class);
+
+    private final VersionedLruCache<String, SerializedPage> entries;
+    private final int gzipMinBytes;
+    private final Scheduler compressor;
+
+    @Autowired
+    public SerializedPageCache(@Value("${app.body-cache.max-entries:1000}") int maxEntries,
+                               @Value("${app.body-cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${app.body-cache.gzip-min-bytes:512}") int gzipMinBytes) {
+        this(maxEntries, maxBytes, gzipMinBytes, Schedulers.parallel());
+    }
+
+    public SerializedPageCache(int maxEntries, long maxBytes, int gzipMinBytes, Scheduler compressor) {
+        this.entries = new VersionedLruCache<>(maxEntries, maxBytes, SerializedPage::weight, page -> { });
+        this.gzipMinBytes = gzipMinBytes;
+        this.compressor = compressor;
+    }
+
+    public boolean isEnabled() {
+        return entries.isEnabled();
+    }
+
+    public SerializedPage get(EntitySnapshot<? extends BaseEntity> snapshot, String query) {
+        return entries.get(snapshot.getType(), snapshot.getVersion(), query);
+    }
+
+    public void put(EntitySnapshot<? extends BaseEntity> snapshot, String query, ByteBuffer body) {
+        SerializedPage page = new SerializedPage(body.asReadOnlyBuffer());
+        entries.put(snapshot.getType(), snapshot.getVersion(), query, page);
+        if (body.remaining() >= gzipMinBytes) {
+            compressor.schedule(() -> {
+                try {
+                    page.gzip = gzip(page.identity.duplicate());
+                } catch (UncheckedIOException e) {
+                    log.warn("Could not gzip cached page body: {}", e.toString());
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return entries.stats();
+    }
+
+    private static ByteBuffer gzip(ByteBuffer body) {
+        byte[] raw = new byte[body.remaining()];
+        body.get(raw);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        return ByteBuffer.allocateDirect(compressed.length).put(compressed).flip().asReadOnlyBuffer();
+    }
+
+    public static final class SerializedPage {
+        private final ByteBuffer identity;
+        private volatile ByteBuffer gzip;
+
+        private SerializedPage(ByteBuffer identity) {
+            this.identity = identity;
+        }
+
+        /**
+         * A fresh view of the uncompressed body; the returned buffer's position is independent of other readers.
+         */
+        public ByteBuffer identity() {
+            return identity.duplicate();
+        }
+
+        /**
+         * A fresh view of the gzip body, or {@code null} if it has not been compressed (yet).
+         */
+        public ByteBuffer gzip() {
+            ByteBuffer compressed = gzip;
+            return compressed == null ? null : compressed.duplicate();
+        }
+
+        private long weight() {
+            // the gzip variant is bounded by the identity size, account for both up front
+            return 2L * identity.remaining();
+        }
+    }
+}
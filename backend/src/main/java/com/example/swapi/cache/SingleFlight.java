@@ -0,0 +1,52 @@
+package com.example.swapi.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same keyed operation.
+ * <p>
+ * The first subscriber for a key starts the operation; every subscriber that arrives while it is still
+ * running receives the same result instead of starting its own. Once the operation terminates the key is
+ * released, so the next call starts a fresh execution.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> operation) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            Flight flight = new Flight();
+            Mono<V> shared = inFlight.computeIfAbsent(key, k -> flight.start(k, operation));
+            if (shared != flight.mono) {
+                deduplicated.incrementAndGet();
+            }
+            return shared;
+        });
+    }
+
+    public long getCalls() { return calls.get(); }
+    public long getDeduplicated() { return deduplicated.get(); }
+    public int getInFlight() { return inFlight.size(); }
+
+    private class Flight {
+        private Mono<V> mono;
+
+        Mono<V> start(K key, Supplier<Mono<V>> operation) {
+            // released on the first terminal signal, before cache() replays it, so a caller that has
+            // seen the result never finds its own flight still registered; doFinally covers cancellation
+            mono = Mono.defer(operation)
+                    .doOnEach(signal -> inFlight.remove(key, mono))
+                    .doFinally(signal -> inFlight.remove(key, mono))
+                    .cache();
+            return mono;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.service.EntityLoader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds one in-memory {@link EntitySnapshot} per {@link EntityType}.
+ * <p>
+ * Snapshots younger than {@code refresh-after} are served as-is. Between {@code refresh-after} and
+ * {@code ttl} they are still served, but a background refresh is started so the next caller sees fresh
+ * data without waiting. The caller that finds the snapshot expired starts a reload and waits at most
+ * {@code stale-timeout} for it; callers arriving while that reload (or any other) is running get the last good
+ * snapshot right away. If upstream is slow or failing (including while its circuit breaker is open) the last
+ * good snapshot is served and reported by {@link #isStale}. Only a missing snapshot makes the caller
+ * wait for upstream unconditionally.
+ * <p>
+ * Every loaded snapshot is also persisted through {@link SnapshotFileStore}. On startup the persisted
+ * snapshots are restored and served right away, while a background refresh revalidates them against
+ * upstream; the store decides which files are still usable.
+ */
+@Component
+public class SnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotCache.class);
+
+    private final EntityLoader loader;
+    private final SnapshotFileStore fileStore;
+    private final Duration ttl;
+    private final Duration refreshAfter;
+    private final Duration staleTimeout;
+    private final Clock clock;
+
+    private final Map<EntityType, AtomicReference<EntitySnapshot<?>>> snapshots = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, AtomicBoolean> refreshing = new EnumMap<>(EntityType.class);
+    // one load per type at a time, so a waiting caller and a background refresh publish the same snapshot
+    private final SingleFlight<EntityType, EntitySnapshot<?>> loads = new SingleFlight<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final Disposable refresher;
+
+    @Autowired
+    public SnapshotCache(EntityLoader loader,
+                         SnapshotFileStore fileStore,
+                         @Value("${app.snapshot.ttl:10m}") Duration ttl,
+                         @Value("${app.snapshot.refresh-after:5m}") Duration refreshAfter,
+                         @Value("${app.snapshot.stale-timeout:1s}") Duration staleTimeout) {
+        this(loader, fileStore, ttl, refreshAfter, staleTimeout, Clock.systemUTC());
+    }
+
+    SnapshotCache(EntityLoader loader, SnapshotFileStore fileStore, Duration ttl, Duration refreshAfter,
+                  Duration staleTimeout, Clock clock) {
+        if (refreshAfter.compareTo(ttl) > 0) {
+            throw new IllegalArgumentException("app.snapshot.refresh-after must not exceed app.snapshot.ttl");
+        }
+        this.loader = loader;
+        this.fileStore = fileStore;
+        this.ttl = ttl;
+        this.refreshAfter = refreshAfter;
+        this.staleTimeout = staleTimeout;
+        this.clock = clock;
+        for (EntityType type : EntityType.values()) {
+            snapshots.put(type, new AtomicReference<>());
+            refreshing.put(type, new AtomicBoolean());
+        }
+        restore();
+        // keep loaded snapshots warm even when no requests arrive
+        this.refresher = Flux.interval(refreshAfter)
+                .subscribe(tick -> refreshStale());
+    }
+
+    /**
+     * Returns the current snapshot for the given type, loading it first if there is none or it has expired.
+     * <p>
+     * A snapshot pinned in the subscriber context with {@link #pin} takes precedence, so every stage of a
+     * request sees the same version.
+     */
+    public <T extends BaseEntity> Mono<EntitySnapshot<T>> get(EntityType type) {
+        return Mono.deferContextual(context -> context.<EntitySnapshot<T>>getOrEmpty(pinKey(type))
+                .map(Mono::just)
+                .orElseGet(() -> resolve(type)));
+    }
+
+    /**
+     * Returns the current snapshot of each of the given types, by type, with the same rules as {@link #get}.
+     */
+    public Mono<Map<EntityType, EntitySnapshot<?>>> getAll(Collection<EntityType> types) {
+        if (types.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Flux.fromIterable(types)
+                .flatMap(type -> this.<BaseEntity>get(type))
+                .collectMap(EntitySnapshot::getType, snapshot -> (EntitySnapshot<?>) snapshot);
+    }
+
+    /**
+     * Pins the given snapshot for everything subscribed under the returned context.
+     */
+    public static Context pin(Context context, EntitySnapshot<?> snapshot) {
+        return context.put(pinKey(snapshot.getType()), snapshot);
+    }
+
+    /**
+     * Pins every given snapshot, see {@link #pin(Context, EntitySnapshot)}.
+     */
+    public static Context pin(Context context, Collection<? extends EntitySnapshot<?>> snapshots) {
+        Context pinned = context;
+        for (EntitySnapshot<?> snapshot : snapshots) {
+            pinned = pin(pinned, snapshot);
+        }
+        return pinned;
+    }
+
+    private static String pinKey(EntityType type) {
+        return SnapshotCache.class.getName() + "." + type.name();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends BaseEntity> Mono<EntitySnapshot<T>> resolve(EntityType type) {
+        EntitySnapshot<T> current = (EntitySnapshot<T>) snapshots.get(type).get();
+        if (current == null) {
+            return load(type);
+        }
+
+        if (current.isRestored()) {
+            refreshInBackground(type);
+            return Mono.just(current);
+        }
+
+        Duration age = current.age(now());
+        if (age.compareTo(ttl) >= 0) {
+            AtomicBoolean flag = refreshing.get(type);
+            if (!flag.compareAndSet(false, true)) {
+                // a reload is already running and publishes its snapshot when done
+                return Mono.just(current);
+            }
+            Mono<EntitySnapshot<T>> reload = this.<T>load(type)
+                    .doFinally(signal -> flag.set(false))
+                    .cache();
+            // the background subscription keeps the reload going if this caller gives up on it
+            reload.subscribe(
+                    snapshot -> { },
+                    error -> log.warn("Reload of expired {} snapshot failed, serving v{}: {}", type, current.getVersion(), error.toString()));
+            return reload
+                    .timeout(staleTimeout, Mono.just(current))
+                    .onErrorReturn(current);
+        }
+        if (age.compareTo(refreshAfter) >= 0) {
+            refreshInBackground(type);
+        }
+        return Mono.just(current);
+    }
+
+    /**
+     * Returns the snapshot currently held for the given type without triggering any load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> EntitySnapshot<T> peek(EntityType type) {
+        return (EntitySnapshot<T>) snapshots.get(type).get();
+    }
+
+    /**
+     * Returns whether the given snapshot is being served past its ttl, or was restored from disk and has
+     * not been revalidated against upstream yet.
+     */
+    public boolean isStale(EntitySnapshot<?> snapshot) {
+        return snapshot.isRestored() || snapshot.age(now()).compareTo(ttl) >= 0;
+    }
+
+    /**
+     * Loads a fresh snapshot from upstream and publishes it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> Mono<EntitySnapshot<T>> load(EntityType type) {
+        return loads.execute(type, () -> loader.<BaseEntity>loadAll(type)
+                        .map(entities -> {
+                            EntitySnapshot<?> snapshot = new EntitySnapshot<>(type, entities, versions.incrementAndGet(), now());
+                            snapshots.get(type).set(snapshot);
+                            log.debug("Loaded {} snapshot v{} with {} entities", type, snapshot.getVersion(), entities.size());
+                            persist(snapshot);
+                            return snapshot;
+                        }))
+                .map(snapshot -> (EntitySnapshot<T>) snapshot);
+    }
+
+    private void restore() {
+        for (EntityType type : EntityType.values()) {
+            SnapshotFileStore.Stored<BaseEntity> stored = fileStore.read(type, now());
+            if (stored == null) {
+                continue;
+            }
+            EntitySnapshot<BaseEntity> snapshot = new EntitySnapshot<>(
+                    type, stored.getEntities(), versions.incrementAndGet(), stored.getContentHash(), stored.getLoadedAt(), true);
+            snapshots.get(type).set(snapshot);
+            log.info("Restored {} snapshot with {} entities loaded at {}", type, stored.getEntities().size(), stored.getLoadedAt());
+            refreshInBackground(type);
+        }
+    }
+
+    private void persist(EntitySnapshot<?> snapshot) {
+        if (fileStore.isEnabled()) {
+            Schedulers.boundedElastic().schedule(() -> fileStore.write(snapshot));
+        }
+    }
+
+    private void refreshInBackground(EntityType type) {
+        AtomicBoolean flag = refreshing.get(type);
+        if (!flag.compareAndSet(false, true)) {
+            return;
+        }
+        load(type)
+                .doFinally(signal -> flag.set(false))
+                .subscribe(
+                        snapshot -> { },
+                        error -> log.warn("Background refresh of {} failed: {}", type, error.toString()));
+    }
+
+    private void refreshStale() {
+        Instant now = now();
+        snapshots.forEach((type, ref) -> {
+            EntitySnapshot<?> current = ref.get();
+            if (current != null && current.age(now).compareTo(refreshAfter) >= 0) {
+                refreshInBackground(type);
+            }
+        });
+    }
+
+    private Instant now() {
+        return clock.instant();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.dispose();
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists loaded snapshots to compact binary files so a restarted process can serve immediately.
+ * <p>
+ * Each entity type has its own file, written to a temporary file and atomically moved into place. Files are
+ * memory-mapped for reading. The header records the upstream base URL the data came from and the snapshot's
+ * {@linkplain #contentHash content hash}, so a restored snapshot keeps its identity. A file written
+ * for another upstream, or loaded longer than {@code app.snapshot.max-restore-age} ago, is not restored. Any
+ * read problem (missing file, old format, truncation or corruption) simply means there is nothing to restore.
+ */
+@Component
+public class SnapshotFileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFileStore.class);
+
+    private static final int MAGIC = 0x5357534e; // "SWSN"
+    private static final int FORMAT_VERSION = 3;
+
+    private final Path directory;
+    private final String upstream;
+    private final Duration maxAge;
+
+    public SnapshotFileStore(@Value("${app.snapshot.store-dir:}") String directory,
+                             @Value("${app.swapi-base-url}") String upstream,
+                             @Value("${app.snapshot.max-restore-age:24h}") Duration maxAge) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+        this.upstream = upstream;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * A store that persists and restores nothing.
+     */
+    public static SnapshotFileStore disabled() {
+        return new SnapshotFileStore(null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Snapshot data persisted for one type: the entities, their content hash and when they were loaded from
+     * upstream.
+     */
+    public static final class Stored<T extends BaseEntity> {
+        private final List<T> entities;
+        private final long contentHash;
+        private final Instant loadedAt;
+
+        Stored(List<T> entities, long contentHash, Instant loadedAt) {
+            this.entities = entities;
+            this.contentHash = contentHash;
+            this.loadedAt = loadedAt;
+        }
+
+        public List<T> getEntities() { return entities; }
+        public long getContentHash() { return contentHash; }
+        public Instant getLoadedAt() { return loadedAt; }
+    }
+
+    /**
+     * The snapshot persisted for the given type, or {@code null} if there is none usable at {@code now}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> Stored<T> read(EntityType type, Instant now) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Path file = file(type);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.info("Ignoring {} snapshot file with unknown format", type);
+                return null;
+            }
+            String source = readString(buffer);
+            if (!upstream.equals(source)) {
+                log.info("Ignoring {} snapshot file loaded from another upstream: {}", type, source);
+                return null;
+            }
+            Instant loadedAt = Instant.ofEpochMilli(buffer.getLong());
+            if (Duration.between(loadedAt, now).compareTo(maxAge) > 0) {
+                log.info("Ignoring {} snapshot file loaded at {}, older than {}", type, loadedAt, maxAge);
+                return null;
+            }
+            long contentHash = buffer.getLong();
+            int count = buffer.getInt();
+            // every entity takes more than 4 bytes, so a larger count can only come from a corrupt file
+            checkLength(buffer, count, 4);
+            List<T> entities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entities.add((T) (type == EntityType.PEOPLE ? readPerson(buffer) : readPlanet(buffer)));
+            }
+            return new Stored<>(entities, contentHash, loadedAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore {} snapshot from {}: {}", type, file, e.toString());
+            return null;
+        }
+    }
+
+    public void write(EntitySnapshot<? extends BaseEntity> snapshot) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = file(snapshot.getType());
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, snapshot.getType().getPath(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, upstream);
+                out.writeLong(snapshot.getLoadedAt().toEpochMilli());
+                out.writeLong(snapshot.getContentHash());
+                writeEntities(out, snapshot.getEntities());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not persist {} snapshot to {}: {}", snapshot.getType(), file, e.toString());
+        } finally {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * A hash of every field of every entity, in order, taken over the same encoding the files use. It only
+     * depends on the data, so it is the same in every process that loaded identical entities.
+     */
+    public static long contentHash(List<? extends BaseEntity> entities) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest)))) {
+            writeEntities(out, entities);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static void writeEntities(DataOutputStream out, List<? extends BaseEntity> entities) throws IOException {
+        out.writeInt(entities.size());
+        for (BaseEntity entity : entities) {
+            if (entity instanceof Person) {
+                writePerson(out, (Person) entity);
+            } else {
+                writePlanet(out, (Planet) entity);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.toString());
+        }
+    }
+
+    private Path file(EntityType type) {
+        return directory.resolve(type.getPath() + ".snapshot");
+    }
+
+    private static void writePerson(DataOutputStream out, Person person) throws IOException {
+        writeString(out, person.getName());
+        writeDate(out, person.getCreated());
+        writeString(out, person.getHeight());
+        writeString(out, person.getMass());
+        writeString(out, person.getHair_color());
+        writeString(out, person.getSkin_color());
+        writeString(out, person.getEye_color());
+        writeString(out, person.getBirth_year());
+        writeString(out, person.getGender());
+        writeString(out, person.getHomeworld());
+        writeList(out, person.getFilms());
+        writeList(out, person.getSpecies());
+        writeList(out, person.getVehicles());
+        writeList(out, person.getStarships());
+        writeString(out, person.getEdited());
+        writeString(out, person.getUrl());
+    }
+
+    private static Person readPerson(ByteBuffer in) {
+        Person person = new Person();
+        person.setName(readString(in));
+        person.setCreated(readDate(in));
+        person.setHeight(readString(in));
+        person.setMass(readString(in));
+        person.setHair_color(readString(in));
+        person.setSkin_color(readString(in));
+        person.setEye_color(readString(in));
+        person.setBirth_year(readString(in));
+        person.setGender(readString(in));
+        person.setHomeworld(readString(in));
+        person.setFilms(readList(in));
+        person.setSpecies(readList(in));
+        person.setVehicles(readList(in));
+        person.setStarships(readList(in));
+        person.setEdited(readString(in));
+        person.setUrl(readString(in));
+        return person;
+    }
+
+    private static void writePlanet(DataOutputStream out, Planet planet) throws IOException {
+        writeString(out, planet.getName());
+        writeDate(out, planet.getCreated());
+        writeString(out, planet.getRotationPeriod());
+        writeString(out, planet.getOrbitalPeriod());
+        writeString(out, planet.getDiameter());
+        writeString(out, planet.getClimate());
+        writeString(out, planet.getGravity());
+        writeString(out, planet.getTerrain());
+        writeString(out, planet.getSurfaceWater());
+        writeString(out, planet.getPopulation());
+        writeList(out, planet.getResidents());
+        writeList(out, planet.getFilms());
+        writeString(out, planet.getEdited());
+        writeString(out, planet.getUrl());
+    }
+
+    private static Planet readPlanet(ByteBuffer in) {
+        Planet planet = new Planet();
+        planet.setName(readString(in));
+        planet.setCreated(readDate(in));
+        planet.setRotationPeriod(readString(in));
+        planet.setOrbitalPeriod(readString(in));
+        planet.setDiameter(readString(in));
+        planet.setClimate(readString(in));
+        planet.setGravity(readString(in));
+        planet.setTerrain(readString(in));
+        planet.setSurfaceWater(readString(in));
+        planet.setPopulation(readString(in));
+        planet.setResidents(readList(in));
+        planet.setFilms(readList(in));
+        planet.setEdited(readString(in));
+        planet.setUrl(readString(in));
+        return planet;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        checkLength(in, length, 1);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readList(ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        checkLength(in, size, 4);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Fails like a truncated read when {@code count} items of at least {@code minBytes} each cannot fit in what
+     * is left, before anything is allocated for them.
+     */
+    private static void checkLength(ByteBuffer in, int count, int minBytes) {
+        if (count < 0 || count > in.remaining() / minBytes) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, OffsetDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond());
+            out.writeInt(value.getNano());
+            out.writeInt(value.getOffset().getTotalSeconds());
+        }
+    }
+
+    private static OffsetDateTime readDate(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        long epochSecond = in.getLong();
+        int nano = in.getInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.getInt());
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.EntityType;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * LRU map whose entries belong to one snapshot version of an entity type.
+ * <p>
+ * Capacity is bounded both by entry count and by total weight. When a newer snapshot version of a type is
+ * seen, every entry computed from an older version of that type is dropped.
+ */
+public class VersionedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final Consumer<V> onRemoval;
+
+    private final LinkedHashMap<Key<K>, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<EntityType, Long> currentVersions = new EnumMap<>(EntityType.class);
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public VersionedLruCache(int maxEntries, long maxWeight, ToLongFunction<V> weigher, Consumer<V> onRemoval) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.onRemoval = onRemoval;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0 && maxWeight > 0;
+    }
+
+    public synchronized V get(EntityType type, long version, K key) {
+        invalidateOlderVersions(type, version);
+        V value = entries.get(new Key<>(type, version, key));
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value unless a newer snapshot version of its type has been seen meanwhile.
+     */
+    public synchronized void put(EntityType type, long version, K key, V value) {
+        invalidateOlderVersions(type, version);
+        if (currentVersions.get(type) != version || weigher.applyAsLong(value) > maxWeight) {
+            onRemoval.accept(value);
+            return;
+        }
+        V previous = entries.put(new Key<>(type, version, key), value);
+        if (previous != null) {
+            remove(previous);
+        }
+        weight += weigher.applyAsLong(value);
+        evictIfNeeded();
+    }
+
+    private void invalidateOlderVersions(EntityType type, long version) {
+        Long current = currentVersions.get(type);
+        if (current != null && current >= version) {
+            return;
+        }
+        currentVersions.put(type, version);
+        Iterator<Map.Entry<Key<K>, V>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key<K>, V> entry = it.next();
+            if (entry.getKey().type == type && entry.getKey().version < version) {
+                it.remove();
+                remove(entry.getValue());
+                invalidations++;
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key<K>, V>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && it.hasNext()) {
+            V eldest = it.next().getValue();
+            it.remove();
+            remove(eldest);
+            evictions++;
+        }
+    }
+
+    private void remove(V value) {
+        weight -= weigher.applyAsLong(value);
+        onRemoval.accept(value);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("weight", weight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private static final class Key<K> {
+        private final EntityType type;
+        private final long version;
+        private final K key;
+
+        private Key(EntityType type, long version, K key) {
+            this.type = type;
+            this.version = version;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key<?> other = (Key<?>) o;
+            return version == other.version && type == other.type && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, version, key);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.swapi.config;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps hold of the connection pools Reactor Netty creates for the upstream transport so their
+ * occupancy can be reported without pulling in a metrics registry.
+ */
+public class UpstreamPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(id, metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(id);
+    }
+
+    public Map<String, Object> stats() {
+        int active = 0;
+        int idle = 0;
+        int allocated = 0;
+        int pending = 0;
+        int maxConnections = 0;
+        for (ConnectionPoolMetrics metrics : pools.values()) {
+            active += metrics.acquiredSize();
+            idle += metrics.idleSize();
+            allocated += metrics.allocatedSize();
+            pending += metrics.pendingAcquireSize();
+            maxConnections += metrics.maxAllocatedSize();
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("pools", pools.size());
+        values.put("active", active);
+        values.put("idle", idle);
+        values.put("allocated", allocated);
+        values.put("pendingAcquires", pending);
+        values.put("maxConnections", maxConnections);
+        return values;
+    }
+}
@@ -1,19 +1,56 @@
 package com.example.swapi.config;
 
+import io.netty.channel.ChannelOption;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import javax.net.ssl.SSLException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * The single upstream transport: a bounded, instrumented connection pool with keep-alive,
+ * gzip negotiation and connect/response timeouts.
+ */
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient() {
+    public UpstreamPoolMetrics upstreamPoolMetrics() {
+        return new UpstreamPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(
+            UpstreamPoolMetrics poolMetrics,
+            @Value("${app.upstream.max-connections:50}") int maxConnections,
+            @Value("${app.upstream.pending-acquire-max:500}") int pendingAcquireMax,
+            @Value("${app.upstream.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${app.upstream.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${app.upstream.max-life-time:5m}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("swapi")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true, () -> poolMetrics)
+                .build();
+    }
+
+    @Bean
+    public WebClient webClient(
+            ConnectionProvider upstreamConnectionProvider,
+            @Value("${app.upstream.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${app.upstream.response-timeout:10s}") Duration responseTimeout) {
         SslContext sslContext;
         try {
             sslContext = SslContextBuilder
@@ -21,14 +58,18 @@ public class WebClientConfig {
                     .trustManager(InsecureTrustManagerFactory.INSTANCE)
                     .build();
         } catch (SSLException e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException("Error creating SSL context", e);
         }
 
-        HttpClient httpClient = HttpClient.create()
-                .secure(sslSpec -> sslSpec.sslContext(sslContext));
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .secure(sslSpec -> sslSpec.sslContext(sslContext))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .keepAlive(true)
+                .compress(true)
+                .responseTimeout(responseTimeout);
 
         return WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
-}
\ No newline at end of file
+}
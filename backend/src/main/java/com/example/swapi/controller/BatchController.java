@@ -0,0 +1,37 @@
+package com.example.swapi.controller;
+
+import com.example.swapi.dto.BatchQuery;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.web.ConditionalGetWebFilter;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@Validated
+public class BatchController {
+
+  static final int MAX_QUERIES = 50;
+
+  private final EntityQueryService queryService;
+
+  public BatchController(EntityQueryService queryService) {
+    this.queryService = queryService;
+  }
+
+  @PostMapping("/batch")
+  public Mono<List<PageResponse<?>>> batch(@RequestBody @Size(max = MAX_QUERIES) List<@Valid BatchQuery> queries,
+                                           ServerHttpResponse response) {
+    // the list endpoints get this header from ConditionalGetWebFilter, which does not see batches
+    return queryService.batch(queries,
+        () -> response.getHeaders().set(ConditionalGetWebFilter.STALE_HEADER, "true"));
+  }
+}
@@ -1,14 +1,67 @@
 package com.example.swapi.controller;
 
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.service.WarmupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 public class HealthController {
+
+  private final WarmupService warmupService;
+  private final SnapshotCache snapshotCache;
+
+  public HealthController(WarmupService warmupService, SnapshotCache snapshotCache) {
+    this.warmupService = warmupService;
+    this.snapshotCache = snapshotCache;
+  }
+
   @GetMapping("/health")
   public Map<String, Object> health() {
     return Map.of("status", "UP");
   }
+
+  @GetMapping("/health/live")
+  public Map<String, Object> live() {
+    return Map.of("status", "UP");
+  }
+
+  @GetMapping("/health/ready")
+  public ResponseEntity<Map<String, Object>> ready() {
+    boolean ready = warmupService.isReady();
+    Instant now = Instant.now();
+
+    Map<String, Object> snapshots = new LinkedHashMap<>();
+    for (EntityType type : EntityType.values()) {
+      EntitySnapshot<?> snapshot = snapshotCache.peek(type);
+      if (snapshot == null) {
+        snapshots.put(type.getPath(), Map.of("loaded", false));
+        continue;
+      }
+      Map<String, Object> details = new LinkedHashMap<>();
+      details.put("loaded", true);
+      details.put("version", snapshot.getVersion());
+      details.put("entities", snapshot.getEntities().size());
+      details.put("ageSeconds", snapshot.age(now).getSeconds());
+      details.put("restored", snapshot.isRestored());
+      snapshots.put(type.getPath(), details);
+    }
+
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("status", ready ? "READY" : "WARMING_UP");
+    Duration warmup = warmupService.getWarmupDuration();
+    body.put("warmupMillis", warmup == null ? null : warmup.toMillis());
+    body.put("snapshots", snapshots);
+
+    return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+  }
 }
@@ -1,17 +1,22 @@
 package com.example.swapi.controller;
 
+import com.example.swapi.dto.ExpandSpec;
+import com.example.swapi.dto.FieldSet;
 import com.example.swapi.dto.PageResponse;
 import com.example.swapi.model.Person;
 import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.service.ExpansionService;
 import com.example.swapi.service.PaginationService;
 import com.example.swapi.sort.SortDirection;
 import com.example.swapi.sort.SortKey;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -20,9 +25,11 @@ import reactor.core.publisher.Mono;
 public class PeopleController {
 
     private final EntityQueryService queryService;
+    private final ExpansionService expansionService;
 
-  public PeopleController(EntityQueryService queryService) {
+  public PeopleController(EntityQueryService queryService, ExpansionService expansionService) {
     this.queryService = queryService;
+    this.expansionService = expansionService;
   }
 
   @GetMapping
@@ -31,9 +38,21 @@ public class PeopleController {
       @RequestParam(defaultValue = "15") @Min(1) int size,
       @RequestParam(defaultValue = "") String search,
       @RequestParam(defaultValue = "name") SortKey sort,
-      @RequestParam(defaultValue = "desc") SortDirection dir
+      @RequestParam(defaultValue = "desc") SortDirection dir,
+      @RequestParam(defaultValue = "") String fields,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "") String expand
   ) {
-      return queryService.getEntities(Person.class, page, size, search, sort, dir);
+      FieldSet fieldSet = FieldSet.parse(fields);
+      ExpandSpec expandSpec = expansionService.parse(expand);
+      Mono<PageResponse<Person>> response = queryService.getEntities(Person.class, page, size, search, sort, dir, cursor)
+          .map(result -> result.withFields(fieldSet));
+      return expandSpec == null ? response : response.flatMap(result -> expansionService.expand(result, expandSpec));
 
   }
+
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<Person> streamPeople(@RequestParam(defaultValue = "") String search) {
+      return queryService.streamEntities(Person.class, search);
+  }
 }
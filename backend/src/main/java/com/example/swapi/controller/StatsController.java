@@ -0,0 +1,60 @@
+package com.example.swapi.controller;
+
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SerializedPageCache;
+import com.example.swapi.cache.SingleFlight;
+import com.example.swapi.config.UpstreamPoolMetrics;
+import com.example.swapi.query.QueryEngine;
+import com.example.swapi.service.EntityLoader;
+import com.example.swapi.service.SwapiClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class StatsController {
+
+  private final EntityLoader entityLoader;
+  private final SwapiClient swapiClient;
+  private final PageResponseCache pageCache;
+  private final SerializedPageCache bodyCache;
+  private final UpstreamPoolMetrics upstreamPool;
+  private final QueryEngine queryEngine;
+
+  public StatsController(EntityLoader entityLoader, SwapiClient swapiClient, PageResponseCache pageCache,
+                         SerializedPageCache bodyCache, UpstreamPoolMetrics upstreamPool, QueryEngine queryEngine) {
+    this.entityLoader = entityLoader;
+    this.swapiClient = swapiClient;
+    this.pageCache = pageCache;
+    this.bodyCache = bodyCache;
+    this.upstreamPool = upstreamPool;
+    this.queryEngine = queryEngine;
+  }
+
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    Map<String, Object> coalescing = new LinkedHashMap<>();
+    coalescing.put("entityLoads", describe(entityLoader.getLoads()));
+    coalescing.put("pageRequests", describe(swapiClient.getPageRequests()));
+
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("coalescing", coalescing);
+    stats.put("pageCache", pageCache.stats());
+    stats.put("bodyCache", bodyCache.stats());
+    stats.put("queryPlans", queryEngine.stats());
+    stats.put("upstreamPool", upstreamPool.stats());
+    stats.put("upstreamBreaker", swapiClient.getCircuitBreaker().stats());
+    stats.put("upstreamPages", swapiClient.pageStats());
+    return stats;
+  }
+
+  private static Map<String, Object> describe(SingleFlight<?, ?> flight) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("calls", flight.getCalls());
+    values.put("deduplicated", flight.getDeduplicated());
+    values.put("inFlight", flight.getInFlight());
+    return values;
+  }
+}
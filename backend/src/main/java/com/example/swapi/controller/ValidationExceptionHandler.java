@@ -0,0 +1,21 @@
+package com.example.swapi.controller;
+
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns constraint violations raised by {@code @Validated} controllers (e.g. {@code page=0} or an oversized
+ * batch) into 400 responses, rendered like every other {@link ResponseStatusException}.
+ */
+@RestControllerAdvice
+public class ValidationExceptionHandler {
+
+  @ExceptionHandler(ConstraintViolationException.class)
+  public Mono<Void> handleConstraintViolation(ConstraintViolationException e) {
+    return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.swapi.dto;
+
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * One list query of a batch request, with the same parameters and defaults as the list endpoints. The
+ * {@code type} is the endpoint path, e.g. {@code people}.
+ */
+public class BatchQuery {
+  @NotBlank
+  private String type;
+  @Min(1)
+  private int page = 1;
+  @Min(1)
+  private int size = 15;
+  private String search = "";
+  private SortKey sort = SortKey.name;
+  private SortDirection dir = SortDirection.desc;
+  private String cursor;
+  private String fields;
+
+  public String getType() { return type; }
+  public void setType(String type) { this.type = type; }
+  public int getPage() { return page; }
+  public void setPage(int page) { this.page = page; }
+  public int getSize() { return size; }
+  public void setSize(int size) { this.size = size; }
+  public String getSearch() { return search; }
+  public void setSearch(String search) { this.search = search == null ? "" : search; }
+  public SortKey getSort() { return sort; }
+  public void setSort(SortKey sort) { this.sort = sort == null ? SortKey.name : sort; }
+  public SortDirection getDir() { return dir; }
+  public void setDir(SortDirection dir) { this.dir = dir == null ? SortDirection.desc : dir; }
+  public String getCursor() { return cursor; }
+  public void setCursor(String cursor) { this.cursor = cursor; }
+  public String getFields() { return fields; }
+  public void setFields(String fields) { this.fields = fields; }
+
+}
@@ -0,0 +1,95 @@
+package com.example.swapi.dto;
+
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Relation;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relations requested through the {@code expand} parameter, as a tree: {@code homeworld.residents} expands
+ * each homeworld and, inside it, that planet's residents.
+ */
+public final class ExpandSpec {
+
+    private static final ExpandSpec LEAF = new ExpandSpec(Map.of());
+
+    private final Map<String, ExpandSpec> children;
+
+    private ExpandSpec(Map<String, ExpandSpec> children) {
+        this.children = children;
+    }
+
+    /**
+     * Parses a comma-separated list of dotted relation paths, or returns {@code null} when nothing is
+     * expanded.
+     *
+     * @throws IllegalArgumentException for names that are not a {@link Relation}
+     */
+    public static ExpandSpec parse(String expand) {
+        if (expand == null || expand.isBlank()) {
+            return null;
+        }
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (String path : expand.split(",")) {
+            if (path.isBlank()) {
+                continue;
+            }
+            Map<String, Object> node = tree;
+            for (String name : path.trim().split("\\.")) {
+                Relation.fromProperty(name);
+                node = child(node, name);
+            }
+        }
+        return tree.isEmpty() ? null : build(tree);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> node, String name) {
+        return (Map<String, Object>) node.computeIfAbsent(name, k -> new LinkedHashMap<String, Object>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExpandSpec build(Map<String, Object> tree) {
+        if (tree.isEmpty()) {
+            return LEAF;
+        }
+        Map<String, ExpandSpec> children = new LinkedHashMap<>();
+        tree.forEach((name, subtree) -> children.put(name, build((Map<String, Object>) subtree)));
+        return new ExpandSpec(Collections.unmodifiableMap(children));
+    }
+
+    /**
+     * The nested expansion for a relation property, or {@code null} if it is not expanded.
+     */
+    public ExpandSpec child(String property) {
+        return children.get(property);
+    }
+
+    public Map<String, ExpandSpec> getChildren() {
+        return children;
+    }
+
+    /**
+     * Entity types referenced anywhere in the tree, whose snapshots an expanded response depends on.
+     */
+    public Set<EntityType> targets() {
+        Set<EntityType> targets = EnumSet.noneOf(EntityType.class);
+        children.forEach((property, child) -> {
+            targets.add(Relation.fromProperty(property).getTarget());
+            targets.addAll(child.targets());
+        });
+        return targets;
+    }
+
+    public int depth() {
+        int depth = 0;
+        for (ExpandSpec child : children.values()) {
+            depth = Math.max(depth, 1 + child.depth());
+        }
+        return depth;
+    }
+}
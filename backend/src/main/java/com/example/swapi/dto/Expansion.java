@@ -0,0 +1,30 @@
+package com.example.swapi.dto;
+
+import com.example.swapi.model.BaseEntity;
+
+import java.util.Map;
+
+/**
+ * Relations to expand in a page and the referenced entities already looked up for them, by URL. References
+ * missing from {@code resolved} are written as plain URLs.
+ */
+public final class Expansion {
+
+    private final ExpandSpec spec;
+    private final Map<String, BaseEntity> resolved;
+
+    public Expansion(ExpandSpec spec, Map<String, BaseEntity> resolved) {
+        this.spec = spec;
+        this.resolved = resolved;
+    }
+
+    public ExpandSpec getSpec() { return spec; }
+
+    public BaseEntity resolve(String url) {
+        return resolved.get(url);
+    }
+
+    public int size() {
+        return resolved.size();
+    }
+}
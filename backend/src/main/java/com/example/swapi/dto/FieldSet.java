@@ -0,0 +1,43 @@
+package com.example.swapi.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Entity properties requested through the {@code fields} parameter, by JSON property name.
+ * <p>
+ * Names that no entity has are ignored, so a sparse fieldset never fails a request; it just selects less.
+ */
+public final class FieldSet {
+
+    private final Set<String> names;
+
+    private FieldSet(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Parses a comma-separated list of property names, or returns {@code null} when every property is wanted.
+     */
+    public static FieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names.isEmpty() ? null : new FieldSet(names);
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    public Set<String> getNames() {
+        return names;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.swapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.List;
 
 public class PageResponse<T> {
@@ -11,6 +14,10 @@ public class PageResponse<T> {
   private String sort;
   private String direction;
   private String search;
+  private String nextCursor;
+  private String prevCursor;
+  private FieldSet fields;
+  private Expansion expansion;
 
   public PageResponse() {}
 
@@ -25,6 +32,7 @@ public class PageResponse<T> {
     this.search = search;
   }
 
+  @JsonSerialize(using = ProjectedContentSerializer.class)
   public List<T> getContent() { return content; }
   public void setContent(List<T> content) { this.content = content; }
   public int getPage() { return page; }
@@ -41,4 +49,48 @@ public class PageResponse<T> {
   public void setDirection(String direction) { this.direction = direction; }
   public String getSearch() { return search; }
   public void setSearch(String search) { this.search = search; }
+  public String getNextCursor() { return nextCursor; }
+  public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+  public String getPrevCursor() { return prevCursor; }
+  public void setPrevCursor(String prevCursor) { this.prevCursor = prevCursor; }
+
+  @JsonIgnore
+  public FieldSet getFields() { return fields; }
+
+  @JsonIgnore
+  public Expansion getExpansion() { return expansion; }
+
+  /**
+   * This page restricted to the given entity properties when serialized. Pages may be shared through the
+   * page cache, so this returns a copy over the same content list rather than modifying the page.
+   */
+  public PageResponse<T> withFields(FieldSet fields) {
+    if (fields == null) {
+      return this;
+    }
+    PageResponse<T> projected = copy();
+    projected.fields = fields;
+    return projected;
+  }
+
+  /**
+   * This page with the given relations inlined when serialized, copied like {@link #withFields}.
+   */
+  public PageResponse<T> withExpansion(Expansion expansion) {
+    if (expansion == null) {
+      return this;
+    }
+    PageResponse<T> expanded = copy();
+    expanded.expansion = expansion;
+    return expanded;
+  }
+
+  private PageResponse<T> copy() {
+    PageResponse<T> copy = new PageResponse<>(content, page, size, totalElements, totalPages, sort, direction, search);
+    copy.nextCursor = nextCursor;
+    copy.prevCursor = prevCursor;
+    copy.fields = fields;
+    copy.expansion = expansion;
+    return copy;
+  }
 }
@@ -0,0 +1,135 @@
+package com.example.swapi.dto;
+
+import com.example.swapi.model.BaseEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link PageResponse#getContent()} with only the properties of the page's {@link FieldSet}, and with
+ * the relations of its {@link Expansion} inlined in place of their URLs.
+ * <p>
+ * Entities are written straight through the property writers of their regular bean serializer, so neither
+ * builds intermediate maps or copies, and every name, format and null-handling rule is kept. The field set
+ * only applies to the page's own entities; inlined ones are written whole. Without either the content is
+ * written as usual.
+ */
+public class ProjectedContentSerializer extends JsonSerializer<List<?>> {
+
+    @Override
+    public void serialize(List<?> content, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Object current = gen.currentValue();
+        PageResponse<?> page = current instanceof PageResponse ? (PageResponse<?>) current : null;
+        if (page == null || (page.getFields() == null && page.getExpansion() == null)) {
+            provider.defaultSerializeValue(content, gen);
+            return;
+        }
+
+        Writers writers = new Writers(provider, page.getFields());
+        Expansion expansion = page.getExpansion();
+        gen.writeStartArray(content, content.size());
+        for (Object entity : content) {
+            write(entity, true, expansion == null ? null : expansion.getSpec(), expansion, writers, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void write(Object entity, boolean projected, ExpandSpec spec, Expansion expansion, Writers writers,
+                              JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (entity == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(entity);
+        for (PropertyWriter writer : writers.of(entity.getClass(), projected)) {
+            ExpandSpec nested = spec == null ? null : spec.child(writer.getName());
+            try {
+                if (nested != null && writer instanceof BeanPropertyWriter) {
+                    gen.writeFieldName(writer.getName());
+                    writeReference(((BeanPropertyWriter) writer).get(entity), nested, expansion, writers, gen, provider);
+                } else {
+                    writer.serializeAsField(entity, gen, provider);
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw JsonMappingException.wrapWithPath(e, entity, writer.getName());
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeReference(Object value, ExpandSpec spec, Expansion expansion, Writers writers,
+                                       JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value instanceof String) {
+            BaseEntity referenced = expansion.resolve((String) value);
+            if (referenced != null) {
+                write(referenced, false, spec, expansion, writers, gen, provider);
+            } else {
+                gen.writeString((String) value);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            gen.writeStartArray(values, values.size());
+            for (Object element : values) {
+                writeReference(element, spec, expansion, writers, gen, provider);
+            }
+            gen.writeEndArray();
+        } else {
+            provider.defaultSerializeValue(value, gen);
+        }
+    }
+
+    /**
+     * Property writers per entity class, resolved once per page since pages hold few distinct types.
+     */
+    private static final class Writers {
+        private final SerializerProvider provider;
+        private final FieldSet fields;
+        private final Map<Class<?>, List<PropertyWriter>> projected = new IdentityHashMap<>();
+        private final Map<Class<?>, List<PropertyWriter>> all = new IdentityHashMap<>();
+
+        private Writers(SerializerProvider provider, FieldSet fields) {
+            this.provider = provider;
+            this.fields = fields;
+        }
+
+        List<PropertyWriter> of(Class<?> type, boolean projection) throws JsonMappingException {
+            Map<Class<?>, List<PropertyWriter>> cache = projection && fields != null ? projected : all;
+            List<PropertyWriter> selected = cache.get(type);
+            if (selected == null) {
+                selected = select(type, cache == projected ? fields : null);
+                cache.put(type, selected);
+            }
+            return selected;
+        }
+
+        private List<PropertyWriter> select(Class<?> type, FieldSet fields) throws JsonMappingException {
+            JsonSerializer<Object> serializer = provider.findValueSerializer(type);
+            if (!(serializer instanceof BeanSerializerBase)) {
+                throw JsonMappingException.from(provider, "Cannot project " + type.getName() + ", it is not a bean");
+            }
+            List<PropertyWriter> selected = new ArrayList<>();
+            Iterator<PropertyWriter> properties = ((BeanSerializerBase) serializer).properties();
+            while (properties.hasNext()) {
+                PropertyWriter property = properties.next();
+                if (fields == null || fields.includes(property.getName())) {
+                    selected.add(property);
+                }
+            }
+            return selected;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.swapi.index;
+
+import com.example.swapi.model.BaseEntity;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Column-oriented copy of the fields a snapshot is sorted and searched by, addressed by row id (the
+ * position of the entity in the snapshot).
+ * <p>
+ * Names are folded once, and creation times are flattened to primitive epoch microseconds, so sorting and
+ * scanning compare plain strings and longs instead of re-folding names and comparing
+ * {@link OffsetDateTime}s on every step. The orders match {@code NameSortStrategy} and
+ * {@code CreatedSortStrategy}: case-insensitive names, missing values last.
+ */
+public final class EntityColumns {
+
+    // sorts after every real timestamp, so missing creation times end up last like nullsLast
+    private static final long NO_CREATED = Long.MAX_VALUE;
+
+    private final String[] sortNames;
+    private final String[] searchNames;
+    private final long[] created;
+
+    private EntityColumns(String[] sortNames, String[] searchNames, long[] created) {
+        this.sortNames = sortNames;
+        this.searchNames = searchNames;
+        this.created = created;
+    }
+
+    public static EntityColumns of(List<? extends BaseEntity> entities) {
+        int size = entities.size();
+        String[] sortNames = new String[size];
+        String[] searchNames = new String[size];
+        long[] created = new long[size];
+        for (int row = 0; row < size; row++) {
+            BaseEntity entity = entities.get(row);
+            String name = entity.getName();
+            if (name != null) {
+                searchNames[row] = TrigramIndex.normalize(name);
+                String folded = fold(name);
+                // almost always identical, so keep a single copy
+                sortNames[row] = folded.equals(searchNames[row]) ? searchNames[row] : folded;
+            }
+            created[row] = micros(entity.getCreated());
+        }
+        return new EntityColumns(sortNames, searchNames, created);
+    }
+
+    public int size() {
+        return created.length;
+    }
+
+    /**
+     * Same result sign as {@link String#compareToIgnoreCase}, with missing names last.
+     */
+    public int compareNames(int rowA, int rowB) {
+        String a = sortNames[rowA];
+        String b = sortNames[rowB];
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return a.compareTo(b);
+    }
+
+    public int compareCreated(int rowA, int rowB) {
+        return Long.compare(created[rowA], created[rowB]);
+    }
+
+    /**
+     * Folded sort name of the row, as compared by {@link #compareNames}, or {@code null} if it has none.
+     */
+    public String sortName(int row) {
+        return sortNames[row];
+    }
+
+    /**
+     * Creation time of the row in epoch microseconds, as compared by {@link #compareCreated}.
+     */
+    public long created(int row) {
+        return created[row];
+    }
+
+    /**
+     * Compares a row's name with a folded name taken from {@link #sortName}, in {@link #compareNames} order.
+     */
+    public int compareNameTo(int row, String sortName) {
+        String name = sortNames[row];
+        if (name == null || sortName == null) {
+            return name == null ? (sortName == null ? 0 : 1) : -1;
+        }
+        return name.compareTo(sortName);
+    }
+
+    public int compareCreatedTo(int row, long created) {
+        return Long.compare(this.created[row], created);
+    }
+
+    /**
+     * Lower-cased name of the row as matched by searches, or {@code null} if it has none.
+     */
+    public String searchName(int row) {
+        return searchNames[row];
+    }
+
+    // the per-character folding String.compareToIgnoreCase applies, so plain compareTo gives the same order
+    static String fold(String name) {
+        char[] chars = null;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (chars == null) {
+                    chars = name.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? name : new String(chars);
+    }
+
+    private static long micros(OffsetDateTime created) {
+        if (created == null) {
+            return NO_CREATED;
+        }
+        return created.toEpochSecond() * 1_000_000L + created.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.swapi.index;
+
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Ascending row permutation of a snapshot for every {@link SortKey}, built once when the snapshot is loaded
+ * from its {@link EntityColumns}.
+ * <p>
+ * Descending order is the same permutation walked backwards with every run of equal keys turned back
+ * around, so ties keep their upstream order in both directions, as a stable sort would. Answering a page is a
+ * slice of a permutation rather than a sort.
+ */
+public final class SortIndex {
+
+    // below 1/8 of the matches a bounded heap beats sorting them all
+    private static final int TOP_K_FRACTION = 8;
+
+    private final Map<SortKey, Ordering> ascending;
+    private final Map<SortKey, Ordering> descending;
+    private final int size;
+
+    private SortIndex(Map<SortKey, Ordering> ascending, Map<SortKey, Ordering> descending, int size) {
+        this.ascending = ascending;
+        this.descending = descending;
+        this.size = size;
+    }
+
+    public static SortIndex build(EntityColumns columns) {
+        Map<SortKey, Ordering> ascending = new EnumMap<>(SortKey.class);
+        Map<SortKey, Ordering> descending = new EnumMap<>(SortKey.class);
+        for (SortKey key : SortKey.values()) {
+            IntBinaryOperator comparator = comparator(columns, key);
+            int[] rows = permutation(columns.size(), comparator);
+            ascending.put(key, new Ordering(rows));
+            descending.put(key, new Ordering(reversed(rows, comparator)));
+        }
+        return new SortIndex(ascending, descending, columns.size());
+    }
+
+    private static IntBinaryOperator comparator(EntityColumns columns, SortKey key) {
+        switch (key) {
+            case name:
+                return columns::compareNames;
+            case created:
+                return columns::compareCreated;
+            default:
+                throw new IllegalStateException("No sorting strategy for key " + key);
+        }
+    }
+
+    private static int[] permutation(int size, IntBinaryOperator comparator) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        // stable sort, so equal keys keep their upstream order
+        mergeSort(rows, new int[size], 0, size, comparator);
+        return rows;
+    }
+
+    /**
+     * The ascending permutation backwards, with each run of equal keys restored to upstream order.
+     */
+    private static int[] reversed(int[] ascending, IntBinaryOperator comparator) {
+        int n = ascending.length;
+        int[] rows = new int[n];
+        int end = n;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && comparator.applyAsInt(ascending[start - 1], ascending[end - 1]) == 0) {
+                start--;
+            }
+            System.arraycopy(ascending, start, rows, n - end, end - start);
+            end = start;
+        }
+        return rows;
+    }
+
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, comparator);
+        mergeSort(rows, buffer, middle, to, comparator);
+        if (comparator.applyAsInt(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0)) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row id at the given position of the sort order.
+     */
+    public int rowAt(SortKey key, SortDirection direction, int position) {
+        return ordering(key, direction).rows[position];
+    }
+
+    /**
+     * Position of a row id in the sort order.
+     */
+    public int positionOf(SortKey key, SortDirection direction, int row) {
+        return ordering(key, direction).positions[row];
+    }
+
+    /**
+     * Binary search of the ascending order: the first position whose row compares above the target, or at or
+     * above it when {@code inclusive}. {@code compareToTarget} returns the sign of a row against the target.
+     */
+    public int ascendingBound(SortKey key, IntUnaryOperator compareToTarget, boolean inclusive) {
+        int[] order = ascending.get(key).rows;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareToTarget.applyAsInt(order[middle]);
+            if (comparison > 0 || (inclusive && comparison == 0)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reorders a subset of row ids, in place, into the given sort order.
+     * <p>
+     * Every row has a unique position, so this sorts plain ints instead of comparing entities.
+     */
+    public int[] order(int[] rows, SortKey key, SortDirection direction) {
+        Ordering ordering = ordering(key, direction);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = ordering.positions[rows[i]];
+        }
+        Arrays.sort(rows);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = ordering.rows[rows[i]];
+        }
+        return rows;
+    }
+
+    /**
+     * The first {@code limit} of the given row ids in sort order, for answering a page without ordering
+     * every match.
+     * <p>
+     * When {@code limit} is small next to the number of rows, the positions are selected through a bounded
+     * max-heap of size {@code limit}, which costs O(n log k) time and O(k) memory. Otherwise this falls back
+     * to {@link #order} on a copy and returns all of them. Either way {@code rows} is left untouched.
+     */
+    public int[] top(int[] rows, SortKey key, SortDirection direction, int limit) {
+        int n = rows.length;
+        if (limit <= 0) {
+            return new int[0];
+        }
+        if (limit > n / TOP_K_FRACTION) {
+            return order(rows.clone(), key, direction);
+        }
+
+        Ordering ordering = ordering(key, direction);
+        // positions in the requested order, so in both directions we keep the smallest ones
+        int[] heap = new int[limit];
+        int count = 0;
+        for (int row : rows) {
+            int position = ordering.positions[row];
+            if (count < limit) {
+                heap[count] = position;
+                siftUp(heap, count++);
+            } else if (position < heap[0]) {
+                heap[0] = position;
+                siftDown(heap, limit);
+            }
+        }
+
+        Arrays.sort(heap, 0, count);
+        int[] top = count == limit ? heap : Arrays.copyOf(heap, count);
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ordering.rows[top[i]];
+        }
+        return top;
+    }
+
+    /**
+     * Of the given row ids whose position lies in {@code [start, end)}, the first {@code limit} in sort order,
+     * or the last {@code limit} when {@code fromEnd}; either way returned in sort order. Uses the same bounded
+     * heap as {@link #top} and leaves {@code rows} untouched.
+     */
+    public int[] window(int[] rows, SortKey key, SortDirection direction, int start, int end, int limit,
+                        boolean fromEnd) {
+        if (limit <= 0) {
+            return new int[0];
+        }
+        Ordering ordering = ordering(key, direction);
+        // distances from the wanted edge of the window, so both ends keep the smallest values
+        int[] heap = new int[limit];
+        int count = 0;
+        for (int row : rows) {
+            int position = ordering.positions[row];
+            if (position < start || position >= end) {
+                continue;
+            }
+            int distance = fromEnd ? end - 1 - position : position - start;
+            if (count < limit) {
+                heap[count] = distance;
+                siftUp(heap, count++);
+            } else if (distance < heap[0]) {
+                heap[0] = distance;
+                siftDown(heap, limit);
+            }
+        }
+
+        Arrays.sort(heap, 0, count);
+        int[] window = new int[count];
+        for (int i = 0; i < count; i++) {
+            int position = fromEnd ? end - 1 - heap[count - 1 - i] : start + heap[i];
+            window[i] = ordering.rows[position];
+        }
+        return window;
+    }
+
+    /**
+     * How many of the given row ids sort before {@code position}.
+     */
+    public int countBefore(int[] rows, SortKey key, SortDirection direction, int position) {
+        int[] positions = ordering(key, direction).positions;
+        int count = 0;
+        for (int row : rows) {
+            if (positions[row] < position) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Ordering ordering(SortKey key, SortDirection direction) {
+        return (direction == SortDirection.desc ? descending : ascending).get(key);
+    }
+
+    private static void siftUp(int[] heap, int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int count) {
+        int value = heap[0];
+        int index = 0;
+        int half = count >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < count && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (value >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Row ids in sort order, and the inverse: the position of every row id.
+     */
+    private static final class Ordering {
+        private final int[] rows;
+        private final int[] positions;
+
+        private Ordering(int[] rows) {
+            this.rows = rows;
+            this.positions = new int[rows.length];
+            for (int position = 0; position < rows.length; position++) {
+                positions[rows[position]] = position;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.swapi.index;
+
+import com.example.swapi.model.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trigram inverted index over the lower-cased entity names of a snapshot.
+ * <p>
+ * A substring query is answered by intersecting the posting lists of its trigrams and verifying only the
+ * surviving candidates. Queries shorter than a trigram fall back to a scan of the pre-normalized names held
+ * in the snapshot's {@link EntityColumns}.
+ */
+public final class TrigramIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final EntityColumns columns;
+    private final Map<Long, int[]> postings;
+
+    private TrigramIndex(EntityColumns columns, Map<Long, int[]> postings) {
+        this.columns = columns;
+        this.postings = postings;
+    }
+
+    public static TrigramIndex build(List<? extends BaseEntity> entities) {
+        return build(EntityColumns.of(entities));
+    }
+
+    public static TrigramIndex build(EntityColumns columns) {
+        Map<Long, List<Integer>> building = new HashMap<>();
+
+        for (int row = 0; row < columns.size(); row++) {
+            String name = columns.searchName(row);
+            if (name == null) {
+                continue;
+            }
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                List<Integer> rows = building.computeIfAbsent(trigram(name, i), k -> new ArrayList<>());
+                // rows are visited in order, so a repeated trigram in the same name only needs a tail check
+                if (rows.isEmpty() || rows.get(rows.size() - 1) != row) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((key, rows) -> postings.put(key, rows.stream().mapToInt(Integer::intValue).toArray()));
+        return new TrigramIndex(columns, postings);
+    }
+
+    public static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Row ids, in ascending order, whose name contains the query (case-insensitive).
+     */
+    public int[] search(String query) {
+        String needle = normalize(query);
+        if (needle.length() < 3) {
+            return scan(needle);
+        }
+
+        int trigrams = needle.length() - 2;
+        int[][] lists = new int[trigrams][];
+        for (int i = 0; i < trigrams; i++) {
+            int[] rows = postings.get(trigram(needle, i));
+            if (rows == null) {
+                return NO_ROWS;
+            }
+            lists[i] = rows;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(rows -> rows.length));
+
+        int[] candidates = lists[0].clone();
+        int count = candidates.length;
+        for (int l = 1; l < lists.length && count > 0; l++) {
+            count = retainAll(candidates, count, lists[l]);
+        }
+
+        // trigram hits only prove the pieces are present, check the full substring
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (columns.searchName(candidates[i]).contains(needle)) {
+                candidates[matches++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    private int[] scan(String needle) {
+        int[] rows = new int[columns.size()];
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            String name = columns.searchName(row);
+            if (name != null && name.contains(needle)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    private static int retainAll(int[] candidates, int count, int[] rows) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            while (j < rows.length && rows[j] < candidates[i]) {
+                j++;
+            }
+            if (j == rows.length) {
+                break;
+            }
+            if (rows[j] == candidates[i]) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.swapi.metrics;
+
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.SortKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages a request goes through, from the upstream fetch to the serialized body.
+ * <p>
+ * Every stage records into the {@value #STAGE_TIMER} histogram, tagged with the stage, the entity type and
+ * the sort key ({@code none} for stages that do not sort), so one query can break a request down by stage.
+ * Timers are registered once per tag combination and kept, so recording on the request path is only a lookup.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "swapi.pipeline.stage";
+
+    public static final String FETCH = "fetch";
+    public static final String DECODE = "decode";
+    public static final String SNAPSHOT = "snapshot";
+    public static final String FILTER = "filter";
+    public static final String SORT = "sort";
+    public static final String PAGINATE = "paginate";
+    public static final String SERIALIZE = "serialize";
+
+    private static final String NO_SORT = "none";
+
+    private static final int SORT_SLOTS = SortKey.values().length + 1;
+
+    private final MeterRegistry registry;
+    // per stage, one slot per entity type and sort key (or none)
+    private final Map<String, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String stage, EntityType type, SortKey sortKey, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, type, sortKey, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Times a {@link Mono} from subscription to its value or error.
+     */
+    public <T> Mono<T> time(String stage, EntityType type, SortKey sortKey, Mono<T> work) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work.doOnEach(signal -> {
+                if (signal.isOnNext() || signal.isOnError()) {
+                    record(stage, type, sortKey, System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    public void record(String stage, EntityType type, SortKey sortKey, long nanos) {
+        timer(stage, type, sortKey).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String stage, EntityType type, SortKey sortKey) {
+        AtomicReferenceArray<Timer> slots = timers.computeIfAbsent(stage,
+                s -> new AtomicReferenceArray<>(EntityType.values().length * SORT_SLOTS));
+        int slot = type.ordinal() * SORT_SLOTS + (sortKey == null ? 0 : sortKey.ordinal() + 1);
+        Timer timer = slots.get(slot);
+        if (timer == null) {
+            // registering again returns the meter already held by the registry, so a race is harmless
+            timer = register(stage, type, sortKey);
+            slots.set(slot, timer);
+        }
+        return timer;
+    }
+
+    private Timer register(String stage, EntityType type, SortKey sortKey) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in one stage of the query pipeline")
+                .tag("stage", stage)
+                .tag("type", type.getPath())
+                .tag("sort", sortKey == null ? NO_SORT : sortKey.name())
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
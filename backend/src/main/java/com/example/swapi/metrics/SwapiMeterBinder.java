@@ -0,0 +1,120 @@
+package com.example.swapi.metrics;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SerializedPageCache;
+import com.example.swapi.cache.SingleFlight;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.config.UpstreamPoolMetrics;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.service.CircuitBreaker;
+import com.example.swapi.service.EntityLoader;
+import com.example.swapi.service.SwapiClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Publishes snapshot gauges and the counters already kept for {@code /stats} as Micrometer meters.
+ */
+@Component
+public class SwapiMeterBinder implements MeterBinder {
+
+    // stats entries that only ever grow are exported as counters, everything else as gauges
+    private static final Set<String> MONOTONIC = Set.of("calls", "deduplicated", "hits", "misses", "evictions",
+            "invalidations", "opened", "rejected", "requests", "hedged", "hedgeWins", "suppressed", "deadlinesExceeded");
+
+    private final SnapshotCache snapshotCache;
+    private final EntityLoader entityLoader;
+    private final SwapiClient swapiClient;
+    private final PageResponseCache pageCache;
+    private final SerializedPageCache bodyCache;
+    private final UpstreamPoolMetrics upstreamPool;
+
+    public SwapiMeterBinder(SnapshotCache snapshotCache, EntityLoader entityLoader, SwapiClient swapiClient,
+                            PageResponseCache pageCache, SerializedPageCache bodyCache, UpstreamPoolMetrics upstreamPool) {
+        this.snapshotCache = snapshotCache;
+        this.entityLoader = entityLoader;
+        this.swapiClient = swapiClient;
+        this.pageCache = pageCache;
+        this.bodyCache = bodyCache;
+        this.upstreamPool = upstreamPool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (EntityType type : EntityType.values()) {
+            Gauge.builder("swapi.snapshot.entities", snapshotCache, cache -> snapshotValue(cache.peek(type), Measure.ENTITIES))
+                    .tag("type", type.getPath())
+                    .description("Entities in the current snapshot")
+                    .register(registry);
+            Gauge.builder("swapi.snapshot.age", snapshotCache, cache -> snapshotValue(cache.peek(type), Measure.AGE))
+                    .tag("type", type.getPath())
+                    .baseUnit("seconds")
+                    .description("Age of the current snapshot")
+                    .register(registry);
+            Gauge.builder("swapi.snapshot.version", snapshotCache, cache -> snapshotValue(cache.peek(type), Measure.VERSION))
+                    .tag("type", type.getPath())
+                    .description("Version of the current snapshot")
+                    .register(registry);
+        }
+
+        bindStats(registry, "swapi.coalescing.entity.loads", () -> describe(entityLoader.getLoads()));
+        bindStats(registry, "swapi.coalescing.page.requests", () -> describe(swapiClient.getPageRequests()));
+        bindStats(registry, "swapi.cache.page", pageCache::stats);
+        bindStats(registry, "swapi.cache.body", bodyCache::stats);
+        bindStats(registry, "swapi.upstream.pool", upstreamPool::stats);
+        bindStats(registry, "swapi.upstream.breaker", () -> swapiClient.getCircuitBreaker().stats());
+        Gauge.builder("swapi.upstream.breaker.open", swapiClient,
+                        client -> client.getCircuitBreaker().getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the upstream circuit breaker is open or half-open")
+                .register(registry);
+        bindStats(registry, "swapi.upstream.pages", swapiClient::pageStats);
+    }
+
+    private static void bindStats(MeterRegistry registry, String prefix, Supplier<Map<String, Object>> stats) {
+        stats.get().forEach((key, value) -> {
+            // null marks a number that is not known yet (e.g. the hedge delay before enough samples)
+            if (value != null && !(value instanceof Number)) {
+                return;
+            }
+            String name = prefix + "." + key;
+            if (MONOTONIC.contains(key)) {
+                FunctionCounter.builder(name, stats, s -> number(s.get().get(key))).register(registry);
+            } else {
+                Gauge.builder(name, stats, s -> number(s.get().get(key))).register(registry);
+            }
+        });
+    }
+
+    private static Map<String, Object> describe(SingleFlight<?, ?> flight) {
+        return Map.of("calls", flight.getCalls(), "deduplicated", flight.getDeduplicated(), "inFlight", flight.getInFlight());
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private enum Measure { ENTITIES, AGE, VERSION }
+
+    private static double snapshotValue(EntitySnapshot<?> snapshot, Measure measure) {
+        if (snapshot == null) {
+            return Double.NaN;
+        }
+        switch (measure) {
+            case ENTITIES:
+                return snapshot.getEntities().size();
+            case AGE:
+                return snapshot.age(Instant.now()).toMillis() / 1000.0;
+            default:
+                return snapshot.getVersion();
+        }
+    }
+}
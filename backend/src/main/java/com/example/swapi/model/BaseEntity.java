@@ -12,4 +12,15 @@ public abstract class BaseEntity {
   public void setName(String name) { this.name = name; }
   public OffsetDateTime getCreated() { return created; }
   public void setCreated(OffsetDateTime created) { this.created = created; }
+
+  /**
+   * The entity's own SWAPI URL, which identifies it across snapshots.
+   */
+  public abstract String getUrl();
+
+  /**
+   * A copy of this entity holding its relationship URLs in their shared, dictionary-encoded form. This entity
+   * is left as it is, since other subscribers of the same decoded page may still be reading it.
+   */
+  public abstract BaseEntity withEncodedUrls(UrlDictionary urls);
 }
@@ -0,0 +1,42 @@
+package com.example.swapi.model;
+
+/**
+ * SWAPI resource types served by this backend, with their upstream path and model class.
+ */
+public enum EntityType {
+    PEOPLE("people", Person.class),
+    PLANETS("planets", Planet.class);
+
+    private final String path;
+    private final Class<? extends BaseEntity> entityClass;
+
+    EntityType(String path, Class<? extends BaseEntity> entityClass) {
+        this.path = path;
+        this.entityClass = entityClass;
+    }
+
+    public String getPath() { return path; }
+    public Class<? extends BaseEntity> getEntityClass() { return entityClass; }
+
+    /**
+     * The type served under {@code path}, ignoring case and surrounding blanks.
+     */
+    public static EntityType fromPath(String path) {
+        String normalized = path == null ? null : path.trim();
+        for (EntityType type : values()) {
+            if (type.path.equalsIgnoreCase(normalized)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported entity type: " + path);
+    }
+
+    public static EntityType fromClass(Class<?> entityClass) {
+        for (EntityType type : values()) {
+            if (type.entityClass.equals(entityClass)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported entity type: " + entityClass.getName());
+    }
+}
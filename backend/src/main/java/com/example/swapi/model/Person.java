@@ -28,4 +28,14 @@ public class Person extends BaseEntity {
     private List<String> starships;
     private String edited;
     private String url;
+
+    @Override
+    public Person withEncodedUrls(UrlDictionary urls) {
+        Person encoded = new Person(height, mass, hair_color, skin_color, eye_color, birth_year, gender,
+                urls.intern(homeworld), urls.encode(films), urls.encode(species), urls.encode(vehicles),
+                urls.encode(starships), edited, url);
+        encoded.setName(getName());
+        encoded.setCreated(getCreated());
+        return encoded;
+    }
 }
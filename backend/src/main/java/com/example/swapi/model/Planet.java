@@ -27,4 +27,14 @@ public class Planet extends BaseEntity {
     private String edited;
     private String url;
 
+    @Override
+    public Planet withEncodedUrls(UrlDictionary urls) {
+        // every person lives on one planet, so residents never repeat within a snapshot and would only
+        // add dictionary entries
+        Planet encoded = new Planet(rotationPeriod, orbitalPeriod, diameter, climate, gravity, terrain, surfaceWater,
+                population, residents, urls.encode(films), edited, url);
+        encoded.setName(getName());
+        encoded.setCreated(getCreated());
+        return encoded;
+    }
 }
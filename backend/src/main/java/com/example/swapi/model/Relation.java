@@ -0,0 +1,56 @@
+package com.example.swapi.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * References between cached entity types that can be expanded inline, named after the JSON property that
+ * holds the referenced URLs.
+ */
+public enum Relation {
+    HOMEWORLD("homeworld", Person.class, EntityType.PLANETS,
+            entity -> single(((Person) entity).getHomeworld())),
+    RESIDENTS("residents", Planet.class, EntityType.PEOPLE,
+            entity -> ((Planet) entity).getResidents());
+
+    private final String property;
+    private final Class<? extends BaseEntity> owner;
+    private final EntityType target;
+    private final Function<BaseEntity, List<String>> urls;
+
+    Relation(String property, Class<? extends BaseEntity> owner, EntityType target,
+             Function<BaseEntity, List<String>> urls) {
+        this.property = property;
+        this.owner = owner;
+        this.target = target;
+        this.urls = urls;
+    }
+
+    public String getProperty() { return property; }
+    public EntityType getTarget() { return target; }
+
+    public boolean appliesTo(BaseEntity entity) {
+        return owner.isInstance(entity);
+    }
+
+    /**
+     * URLs this relation references from the given entity, which it must apply to.
+     */
+    public List<String> urls(BaseEntity entity) {
+        List<String> referenced = urls.apply(entity);
+        return referenced == null ? List.of() : referenced;
+    }
+
+    public static Relation fromProperty(String property) {
+        for (Relation relation : values()) {
+            if (relation.property.equals(property)) {
+                return relation;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported relation: " + property);
+    }
+
+    private static List<String> single(String url) {
+        return url == null ? List.of() : List.of(url);
+    }
+}
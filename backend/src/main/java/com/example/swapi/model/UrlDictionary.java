@@ -0,0 +1,56 @@
+package com.example.swapi.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of the relationship URLs entities point at (films, species, homeworlds, ...), owned by one
+ * snapshot.
+ * <p>
+ * Every distinct URL is stored once and given a dense int id, so the entities of a snapshot share the same
+ * strings and only keep id arrays. The dictionary is filled while its snapshot is built and only read
+ * afterwards, and it goes away with the snapshot, so nothing accumulates across refreshes.
+ */
+public final class UrlDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] urls = new String[64];
+
+    public int id(String url) {
+        Integer id = ids.get(url);
+        if (id != null) {
+            return id;
+        }
+        int next = ids.size();
+        if (next == urls.length) {
+            urls = Arrays.copyOf(urls, next * 2);
+        }
+        urls[next] = url;
+        ids.put(url, next);
+        return next;
+    }
+
+    public String url(int id) {
+        return urls[id];
+    }
+
+    /**
+     * The shared instance of {@code url}, or {@code null} for {@code null}.
+     */
+    public String intern(String url) {
+        return url == null ? null : url(id(url));
+    }
+
+    /**
+     * {@code urls} as a {@link UrlList} of this dictionary's ids.
+     */
+    public List<String> encode(List<String> urls) {
+        return UrlList.of(this, urls);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.swapi.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of URLs stored as {@link UrlDictionary} ids. It behaves like any other {@code List<String>}
+ * for callers and for JSON serialization.
+ */
+public final class UrlList extends AbstractList<String> implements RandomAccess {
+
+    private static final UrlList EMPTY = new UrlList(null, new int[0]);
+
+    private final UrlDictionary dictionary;
+    private final int[] ids;
+
+    private UrlList(UrlDictionary dictionary, int[] ids) {
+        this.dictionary = dictionary;
+        this.ids = ids;
+    }
+
+    /**
+     * Encodes {@code urls} with {@code dictionary}, keeping {@code null} as is and reusing lists that are
+     * already encoded with it.
+     */
+    static List<String> of(UrlDictionary dictionary, List<String> urls) {
+        if (urls == null || (urls instanceof UrlList && ((UrlList) urls).dictionary == dictionary)) {
+            return urls;
+        }
+        if (urls.isEmpty()) {
+            return EMPTY;
+        }
+        int[] ids = new int[urls.size()];
+        for (int i = 0; i < ids.length; i++) {
+            String url = urls.get(i);
+            if (url == null) {
+                // not something upstream sends; keep such lists as they are rather than encode them
+                return urls;
+            }
+            ids[i] = dictionary.id(url);
+        }
+        return new UrlList(dictionary, ids);
+    }
+
+    @Override
+    public String get(int index) {
+        return dictionary.url(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.swapi.query;
+
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination token pointing just after (next page) or just before (previous page) one row of
+ * the sorted snapshot.
+ * <p>
+ * It carries the snapshot's content hash and the row's position, which resolve in O(1) while the same data
+ * is served and the row at that position is still the cursor's, plus the row's sort key value and URL as
+ * tiebreaker, which are binary searched for in the sort order otherwise.
+ */
+public final class Cursor {
+
+    private static final int FORMAT = 1;
+
+    private final boolean after;
+    private final long contentHash;
+    private final SortKey sortKey;
+    private final SortDirection direction;
+    private final int position;
+    private final String name;
+    private final long created;
+    private final String url;
+
+    Cursor(boolean after, long contentHash, SortKey sortKey, SortDirection direction, int position, String name,
+           long created, String url) {
+        this.after = after;
+        this.contentHash = contentHash;
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.position = position;
+        this.name = name;
+        this.created = created;
+        this.url = url;
+    }
+
+    /**
+     * Whether the page starts after the cursor row; otherwise it ends before it.
+     */
+    public boolean isAfter() { return after; }
+    public long getContentHash() { return contentHash; }
+    public SortKey getSortKey() { return sortKey; }
+    public SortDirection getDirection() { return direction; }
+    public int getPosition() { return position; }
+    public String getName() { return name; }
+    public long getCreated() { return created; }
+    public String getUrl() { return url; }
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeBoolean(after);
+            out.writeLong(contentHash);
+            out.writeByte(sortKey.ordinal());
+            out.writeByte(direction.ordinal());
+            out.writeInt(position);
+            writeString(out, name);
+            out.writeLong(created);
+            writeString(out, url);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static Cursor decode(String token) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != FORMAT) {
+                throw new InvalidException("unsupported cursor format");
+            }
+            boolean after = in.readBoolean();
+            long contentHash = in.readLong();
+            SortKey sortKey = SortKey.values()[in.readUnsignedByte()];
+            SortDirection direction = SortDirection.values()[in.readUnsignedByte()];
+            int position = in.readInt();
+            String name = readString(in);
+            long created = in.readLong();
+            String url = readString(in);
+            if (in.available() > 0) {
+                throw new InvalidException("trailing data");
+            }
+            return new Cursor(after, contentHash, sortKey, direction, position, name, created, url);
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidException(e.getMessage());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidException extends RuntimeException {
+        public InvalidException(String reason) {
+            super("Invalid cursor: " + reason);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.swapi.query;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.index.EntityColumns;
+import com.example.swapi.index.SortIndex;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import com.example.swapi.sort.SortStrategy;
+import com.example.swapi.sort.SortStrategyFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The single filter/sort/paginate pipeline behind every list endpoint and sorting service.
+ * <p>
+ * A query shape is compiled once into a {@link QueryPlan} and cached, and the comparators for every sort key
+ * and direction are built once at startup, so a request only pays for running its plan. The plan cache is
+ * cleared when it reaches {@code app.query.max-plans}, since free-text searches make the key space unbounded
+ * and compiling a plan again is cheap.
+ */
+@Component
+public class QueryEngine {
+
+    private final PipelineMetrics metrics;
+    private final int maxPlans;
+    private final Map<SortKey, Map<SortDirection, Comparator<BaseEntity>>> comparators = new EnumMap<>(SortKey.class);
+    private final ConcurrentHashMap<Shape, QueryPlan> plans = new ConcurrentHashMap<>();
+
+    private final AtomicLong compiled = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public QueryEngine(PipelineMetrics metrics, @Value("${app.query.max-plans:1024}") int maxPlans) {
+        this.metrics = metrics;
+        this.maxPlans = maxPlans;
+        SortStrategyFactory<BaseEntity> factory = new SortStrategyFactory<>();
+        for (SortKey key : SortKey.values()) {
+            SortStrategy<BaseEntity> strategy = factory.getStrategy(key);
+            if (strategy == null) {
+                throw new IllegalStateException("No sorting strategy for key " + key);
+            }
+            Map<SortDirection, Comparator<BaseEntity>> byDirection = new EnumMap<>(SortDirection.class);
+            for (SortDirection direction : SortDirection.values()) {
+                byDirection.put(direction, strategy.getComparator(direction));
+            }
+            comparators.put(key, byDirection);
+        }
+    }
+
+    public QueryPlan plan(EntityType type, String search, SortKey sortKey, SortDirection direction) {
+        Shape shape = new Shape(type, search, sortKey, direction);
+        QueryPlan plan = plans.get(shape);
+        if (plan != null) {
+            reused.incrementAndGet();
+            return plan;
+        }
+        if (plans.size() >= maxPlans) {
+            plans.clear();
+        }
+        return plans.computeIfAbsent(shape, s -> {
+            compiled.incrementAndGet();
+            return new QueryPlan(type, search, sortKey, direction);
+        });
+    }
+
+    public Comparator<BaseEntity> comparator(SortKey sortKey, SortDirection direction) {
+        return comparators.get(sortKey).get(direction);
+    }
+
+    /**
+     * Runs {@code plan} against a snapshot and returns the requested page.
+     */
+    public <T extends BaseEntity> PageResponse<T> page(EntitySnapshot<T> snapshot, QueryPlan plan, int page, int size) {
+        EntityType type = snapshot.getType();
+        SortKey sortKey = plan.getSortKey();
+        SortDirection direction = plan.getDirection();
+        SortIndex sortIndex = snapshot.getSortIndex();
+
+        // Look up matching rows in the search index
+        int[] matches = null;
+        int total = sortIndex.size();
+        if (plan.hasSearch()) {
+            matches = metrics.record(PipelineMetrics.FILTER, type, sortKey, () -> plan.matches(snapshot));
+            total = matches.length;
+        }
+
+        // Apply pagination
+        int from = Math.max(0, Math.min((page - 1) * size, Math.max(0, total - 1)));
+        int to = Math.min(from + size, total);
+
+        int[] rows;
+        if (matches == null) {
+            // the sort index is already ordered, so reading positions [from, to) is the whole sort
+            rows = positions(sortIndex, sortKey, direction, from, to);
+        } else {
+            // Only the rows up to the end of the page need to be put in order; top() leaves the shared matches alone
+            int[] found = matches;
+            int[] sorted = metrics.record(PipelineMetrics.SORT, type, sortKey,
+                    () -> sortIndex.top(found, sortKey, direction, to));
+            rows = Arrays.copyOfRange(sorted, Math.min(from, to), to);
+        }
+        return response(snapshot, plan, rows, from, total, page, size);
+    }
+
+    /**
+     * Returns the page right after or right before a cursor, seeking into the sort order instead of counting
+     * an offset, so every page costs the same however deep it is.
+     */
+    public <T extends BaseEntity> PageResponse<T> page(EntitySnapshot<T> snapshot, QueryPlan plan, Cursor cursor, int size) {
+        if (cursor.getSortKey() != plan.getSortKey() || cursor.getDirection() != plan.getDirection()) {
+            throw new Cursor.InvalidException("it was issued for a different sort order");
+        }
+        EntityType type = snapshot.getType();
+        SortKey sortKey = plan.getSortKey();
+        SortDirection direction = plan.getDirection();
+        SortIndex sortIndex = snapshot.getSortIndex();
+        int n = sortIndex.size();
+        int boundary = boundary(snapshot, cursor);
+
+        int[] rows;
+        int from;
+        int total;
+        if (!plan.hasSearch()) {
+            total = n;
+            from = cursor.isAfter() ? boundary : Math.max(0, boundary - size);
+            int to = cursor.isAfter() ? Math.min(n, boundary + size) : boundary;
+            rows = positions(sortIndex, sortKey, direction, from, to);
+        } else {
+            int[] matches = metrics.record(PipelineMetrics.FILTER, type, sortKey, () -> plan.matches(snapshot));
+            total = matches.length;
+            rows = metrics.record(PipelineMetrics.SORT, type, sortKey, () -> cursor.isAfter()
+                    ? sortIndex.window(matches, sortKey, direction, boundary, n, size, false)
+                    : sortIndex.window(matches, sortKey, direction, 0, boundary, size, true));
+            int before = sortIndex.countBefore(matches, sortKey, direction, boundary);
+            from = cursor.isAfter() ? before : before - rows.length;
+        }
+        return response(snapshot, plan, rows, from, total, from / size + 1, size);
+    }
+
+    private static int[] positions(SortIndex sortIndex, SortKey sortKey, SortDirection direction, int from, int to) {
+        int[] rows = new int[Math.max(0, to - from)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = sortIndex.rowAt(sortKey, direction, from + i);
+        }
+        return rows;
+    }
+
+    private <T extends BaseEntity> PageResponse<T> response(EntitySnapshot<T> snapshot, QueryPlan plan, int[] rows,
+                                                            int from, int total, int page, int size) {
+        List<T> entities = snapshot.getEntities();
+        List<T> content = metrics.record(PipelineMetrics.PAGINATE, snapshot.getType(), plan.getSortKey(), () -> {
+            if (rows.length == 0) {
+                return List.<T>of();
+            }
+            List<T> slice = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                slice.add(entities.get(row));
+            }
+            return slice;
+        });
+
+        int totalPages = (int) Math.ceil(total / (double) size);
+        PageResponse<T> response = new PageResponse<>(content, page, size, total, totalPages,
+                plan.getSortKey().name(), plan.getDirection().name(), plan.getSearch());
+        if (rows.length > 0) {
+            if (from + rows.length < total) {
+                response.setNextCursor(cursor(snapshot, plan, rows[rows.length - 1], true).encode());
+            }
+            if (from > 0) {
+                response.setPrevCursor(cursor(snapshot, plan, rows[0], false).encode());
+            }
+        }
+        return response;
+    }
+
+    private static Cursor cursor(EntitySnapshot<?> snapshot, QueryPlan plan, int row, boolean after) {
+        EntityColumns columns = snapshot.getColumns();
+        int position = snapshot.getSortIndex().positionOf(plan.getSortKey(), plan.getDirection(), row);
+        return new Cursor(after, snapshot.getContentHash(), plan.getSortKey(), plan.getDirection(), position,
+                columns.sortName(row), columns.created(row), snapshot.getEntities().get(row).getUrl());
+    }
+
+    /**
+     * First position of the page after the cursor, or the end (exclusive) of the page before it.
+     */
+    private static int boundary(EntitySnapshot<?> snapshot, Cursor cursor) {
+        SortIndex sortIndex = snapshot.getSortIndex();
+        SortKey sortKey = cursor.getSortKey();
+        SortDirection direction = cursor.getDirection();
+        int n = sortIndex.size();
+
+        if (isAtPosition(snapshot, cursor)) {
+            return cursor.isAfter() ? cursor.getPosition() + 1 : cursor.getPosition();
+        }
+
+        // the data changed since the cursor was issued: find the cursor row again by its sort key value
+        EntityColumns columns = snapshot.getColumns();
+        IntUnaryOperator compareToCursor;
+        if (sortKey == SortKey.name) {
+            compareToCursor = row -> columns.compareNameTo(row, cursor.getName());
+        } else if (sortKey == SortKey.created) {
+            compareToCursor = row -> columns.compareCreatedTo(row, cursor.getCreated());
+        } else {
+            throw new IllegalStateException("No sorting strategy for key " + sortKey);
+        }
+        int low = sortIndex.ascendingBound(sortKey, compareToCursor, true);
+        int high = sortIndex.ascendingBound(sortKey, compareToCursor, false);
+
+        // equal keys keep upstream order, so the URL tiebreaker is matched among them
+        for (int position = low; position < high; position++) {
+            int row = sortIndex.rowAt(sortKey, SortDirection.asc, position);
+            if (Objects.equals(snapshot.getEntities().get(row).getUrl(), cursor.getUrl())) {
+                int seek = sortIndex.positionOf(sortKey, direction, row);
+                return cursor.isAfter() ? seek + 1 : seek;
+            }
+        }
+        // the row is gone; rows with an equal key stay on the page being moved to, a repeat beats a gap
+        boolean descending = direction == SortDirection.desc;
+        if (cursor.isAfter()) {
+            return descending ? n - high : low;
+        }
+        return descending ? n - low : high;
+    }
+
+    // the position is only trusted for the same data, and only while the row there is still the cursor's own
+    private static boolean isAtPosition(EntitySnapshot<?> snapshot, Cursor cursor) {
+        int position = cursor.getPosition();
+        if (cursor.getContentHash() != snapshot.getContentHash() || position < 0 || position >= snapshot.getSortIndex().size()) {
+            return false;
+        }
+        int row = snapshot.getSortIndex().rowAt(cursor.getSortKey(), cursor.getDirection(), position);
+        return Objects.equals(snapshot.getEntities().get(row).getUrl(), cursor.getUrl());
+    }
+
+    /**
+     * Every entity of the snapshot matching the plan's search, in snapshot order.
+     */
+    public <T extends BaseEntity> Stream<T> matching(EntitySnapshot<T> snapshot, QueryPlan plan) {
+        List<T> entities = snapshot.getEntities();
+        if (!plan.hasSearch()) {
+            return entities.stream();
+        }
+        return Arrays.stream(plan.matches(snapshot)).mapToObj(entities::get);
+    }
+
+    /**
+     * Sorts a list that is not backed by a snapshot, using the shared comparators.
+     */
+    public <T extends BaseEntity> List<T> sort(List<T> entities, SortKey sortKey, SortDirection direction) {
+        Comparator<BaseEntity> comparator = comparator(sortKey, direction);
+        return entities.stream().sorted(comparator).collect(Collectors.toList());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("plans", plans.size());
+        stats.put("compiled", compiled.get());
+        stats.put("reused", reused.get());
+        return stats;
+    }
+
+    private static final class Shape {
+        private final EntityType type;
+        private final String search;
+        private final SortKey sortKey;
+        private final SortDirection direction;
+
+        private Shape(EntityType type, String search, SortKey sortKey, SortDirection direction) {
+            this.type = type;
+            this.search = search;
+            this.sortKey = sortKey;
+            this.direction = direction;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Shape)) return false;
+            Shape other = (Shape) o;
+            return type == other.type && Objects.equals(search, other.search)
+                    && sortKey == other.sortKey && direction == other.direction;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, search, sortKey, direction);
+        }
+    }
+}
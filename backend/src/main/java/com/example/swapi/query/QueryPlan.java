@@ -0,0 +1,80 @@
+package com.example.swapi.query;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.index.TrigramIndex;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import org.springframework.util.StringUtils;
+
+import java.util.function.Predicate;
+
+/**
+ * Compiled form of one query shape (type, search, sort key, direction), reused by every request with that
+ * shape. It holds the normalized search term, the filter predicate, and the rows the search matched in the
+ * latest snapshot it ran against.
+ */
+public final class QueryPlan {
+
+    private final EntityType type;
+    private final String search;
+    private final String needle;
+    private final SortKey sortKey;
+    private final SortDirection direction;
+    private final Predicate<BaseEntity> filter;
+
+    private volatile Matches matches;
+
+    QueryPlan(EntityType type, String search, SortKey sortKey, SortDirection direction) {
+        this.type = type;
+        this.search = search;
+        this.needle = StringUtils.hasText(search) ? TrigramIndex.normalize(search) : null;
+        this.sortKey = sortKey;
+        this.direction = direction;
+        String term = needle;
+        this.filter = term == null
+                ? entity -> true
+                : entity -> entity.getName() != null && TrigramIndex.normalize(entity.getName()).contains(term);
+    }
+
+    public EntityType getType() { return type; }
+    public String getSearch() { return search; }
+    public SortKey getSortKey() { return sortKey; }
+    public SortDirection getDirection() { return direction; }
+
+    public boolean hasSearch() {
+        return needle != null;
+    }
+
+    /**
+     * Matches the search the same way the trigram index does, for entities that are not in a snapshot.
+     */
+    public Predicate<BaseEntity> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Rows of {@code snapshot} matching the search, in snapshot order; only searched again when the
+     * snapshot version changes. Callers must not modify the returned array.
+     */
+    int[] matches(EntitySnapshot<?> snapshot) {
+        Matches current = matches;
+        if (current != null && current.version == snapshot.getVersion()) {
+            return current.rows;
+        }
+        int[] rows = snapshot.getSearchIndex().search(search);
+        matches = new Matches(snapshot.getVersion(), rows);
+        return rows;
+    }
+
+    private static final class Matches {
+        private final long version;
+        private final int[] rows;
+
+        private Matches(long version, int[] rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+    }
+}
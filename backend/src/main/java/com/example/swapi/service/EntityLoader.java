@@ -0,0 +1,96 @@
+package com.example.swapi.service;
+
+import com.example.swapi.cache.SingleFlight;
+import com.example.swapi.dto.SwapiPage;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the complete list of entities of a given type from SWAPI.
+ * <p>
+ * The first page tells us the total count and the page size, so the remaining pages are requested
+ * concurrently (bounded by {@code app.swapi.fetch-concurrency}) and reassembled in page order.
+ * If the upstream count turns out to be wrong, the loader keeps following {@code next} links.
+ * Concurrent loads of the same type share a single upstream walk.
+ */
+@Service
+public class EntityLoader {
+
+    private final SwapiClient swapiClient;
+    private final int concurrency;
+    private final SingleFlight<EntityType, List<BaseEntity>> loads = new SingleFlight<>();
+
+    public EntityLoader(SwapiClient swapiClient,
+                        @Value("${app.swapi.fetch-concurrency:4}") int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("app.swapi.fetch-concurrency must be at least 1");
+        }
+        this.swapiClient = swapiClient;
+        this.concurrency = concurrency;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> Mono<List<T>> loadAll(EntityType type) {
+        return loads.execute(type, () -> fetchPages(type)
+                        .collect(ArrayList<BaseEntity>::new, (all, page) -> all.addAll(results(page)))
+                        .map(list -> (List<BaseEntity>) list))
+                .map(list -> (List<T>) list);
+    }
+
+    public SingleFlight<EntityType, List<BaseEntity>> getLoads() {
+        return loads;
+    }
+
+    /**
+     * Emits every upstream page of the given type, in page order.
+     */
+    public Flux<SwapiPage<BaseEntity>> fetchPages(EntityType type) {
+        return fetch(type, 1).flatMapMany(first -> {
+            int pageSize = results(first).size();
+            if (!hasNext(first) || pageSize == 0) {
+                return Flux.just(first);
+            }
+
+            int totalPages = (int) Math.ceil(first.getCount() / (double) pageSize);
+            if (totalPages < 2) {
+                return Flux.just(first).concatWith(followNext(type, first, 1));
+            }
+
+            Flux<SwapiPage<BaseEntity>> rest = Flux.range(2, totalPages - 1)
+                    .flatMapSequential(page -> fetch(type, page).flatMapMany(swapiPage -> page == totalPages
+                            ? Flux.just(swapiPage).concatWith(followNext(type, swapiPage, page))
+                            : Flux.just(swapiPage)), concurrency);
+
+            return Flux.just(first).concatWith(rest);
+        });
+    }
+
+    // SWAPI counts can drift from the real number of pages, so past the expected end we fall back to next links
+    private Flux<SwapiPage<BaseEntity>> followNext(EntityType type, SwapiPage<BaseEntity> from, int fromPage) {
+        if (!hasNext(from)) {
+            return Flux.empty();
+        }
+        return fetch(type, fromPage + 1)
+                .flatMapMany(next -> Flux.just(next).concatWith(followNext(type, next, fromPage + 1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<SwapiPage<BaseEntity>> fetch(EntityType type, int page) {
+        return swapiClient.fetchPage(type, page).map(swapiPage -> (SwapiPage<BaseEntity>) swapiPage);
+    }
+
+    private static List<BaseEntity> results(SwapiPage<BaseEntity> swapiPage) {
+        return swapiPage.getResults() == null ? List.of() : swapiPage.getResults();
+    }
+
+    private static boolean hasNext(SwapiPage<?> swapiPage) {
+        return swapiPage.getNext() != null && !swapiPage.getNext().isBlank();
+    }
+}
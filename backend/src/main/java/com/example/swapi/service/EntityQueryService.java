@@ -1,32 +1,50 @@
 package com.example.swapi.service;
 
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.dto.BatchQuery;
+import com.example.swapi.dto.FieldSet;
 import com.example.swapi.dto.PageResponse;
-import com.example.swapi.dto.SwapiPage;
+import com.example.swapi.metrics.PipelineMetrics;
 import com.example.swapi.model.BaseEntity;
-import com.example.swapi.model.Person;
-import com.example.swapi.model.Planet;
-import com.example.swapi.sort.*;
-import com.example.swapi.sort.strategies.CreatedSortStrategy;
-import com.example.swapi.sort.strategies.NameSortStrategy;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.query.Cursor;
+import com.example.swapi.query.QueryEngine;
+import com.example.swapi.query.QueryPlan;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class EntityQueryService {
 
-    private final SwapiClient swapiClient;
-    private final Map<Class<?>, Map<SortKey, SortStrategy<?>>> strategyMap = new HashMap<>();
-
-    public EntityQueryService(SwapiClient swapiClient) {
-        this.swapiClient = swapiClient;
-        initializeSortStrategies();
+    private final SnapshotCache snapshotCache;
+    private final PageResponseCache pageCache;
+    private final EntityLoader entityLoader;
+    private final QueryEngine queryEngine;
+    private final PipelineMetrics metrics;
+
+    public EntityQueryService(SnapshotCache snapshotCache, PageResponseCache pageCache, EntityLoader entityLoader,
+                              QueryEngine queryEngine, PipelineMetrics metrics) {
+        this.snapshotCache = snapshotCache;
+        this.pageCache = pageCache;
+        this.entityLoader = entityLoader;
+        this.queryEngine = queryEngine;
+        this.metrics = metrics;
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends BaseEntity> Mono<PageResponse<T>> getEntities(
             Class<T> entityClass,
             int page,
@@ -34,120 +52,121 @@ public class EntityQueryService {
             String search,
             SortKey sortKey,
             SortDirection direction) {
-
-        if (entityClass.equals(Person.class)) {
-            return fetchAllPeople()
-                    .map(entities -> (PageResponse<T>) processEntities(entities, page, size, search, sortKey, direction, (Class<Person>) entityClass));
-        } else if (entityClass.equals(Planet.class)) {
-            return fetchAllPlanets()
-                    .map(entities -> (PageResponse<T>) processEntities(entities, page, size, search, sortKey, direction, (Class<Planet>) entityClass));
-        }
-
-        return Mono.error(new IllegalArgumentException("Unsupported entity type: " + entityClass.getName()));
-    }
-
-    private Mono<List<Person>> fetchAllPeople() {
-        return fetchPageRecursive(1, "people")
-                .map(list -> list.stream()
-                        .filter(entity -> entity instanceof Person)
-                        .map(entity -> (Person) entity)
-                        .collect(Collectors.toList()));
-    }
-
-    private Mono<List<Planet>> fetchAllPlanets() {
-        return fetchPageRecursive(1, "planets")
-                .map(list -> list.stream()
-                        .filter(entity -> entity instanceof Planet)
-                        .map(entity -> (Planet) entity)
-                        .collect(Collectors.toList()));
+        return getEntities(entityClass, page, size, search, sortKey, direction, null);
     }
 
-    private Mono<List<BaseEntity>> fetchPageRecursive(int page, String entityType) {
-        List<BaseEntity> accumulator = new ArrayList<>();
-        return fetchPageRecursiveInternal(page, entityType, accumulator);
-    }
-
-    private Mono<List<BaseEntity>> fetchPageRecursiveInternal(int page, String entityType, List<BaseEntity> accumulator) {
-        Mono<? extends SwapiPage<? extends BaseEntity>> mono;
-
-        if ("people".equals(entityType)) {
-            mono = swapiClient.fetchPeoplePage(page);
-        } else {
-            mono = swapiClient.fetchPlanetsPage(page);
-        }
-
-        return mono.flatMap(swapiPage -> {
-            List<? extends BaseEntity> results = swapiPage.getResults() == null ? List.of() : swapiPage.getResults();
-            accumulator.addAll(results);
-
-            if (swapiPage.getNext() != null && !swapiPage.getNext().isBlank()) {
-                return fetchPageRecursiveInternal(page + 1, entityType, accumulator);
-            } else {
-                return Mono.just(accumulator);
-            }
-        });
-    }
-
-    private <T extends BaseEntity> PageResponse<T> processEntities(
-            List<T> entities,
+    /**
+     * Like {@link #getEntities(Class, int, int, String, SortKey, SortDirection)}, but when a cursor from a
+     * previous response is given it selects the page instead of {@code page}.
+     */
+    public <T extends BaseEntity> Mono<PageResponse<T>> getEntities(
+            Class<T> entityClass,
             int page,
             int size,
             String search,
             SortKey sortKey,
             SortDirection direction,
-            Class<T> entityClass) {
-
-        // Filter by search term if provided
-        List<T> filtered = entities;
-        if (StringUtils.hasText(search)) {
-            String searchLower = search.toLowerCase(Locale.ROOT);
-            filtered = entities.stream()
-                    .filter(entity -> entity.getName() != null &&
-                            entity.getName().toLowerCase(Locale.ROOT).contains(searchLower))
-                    .collect(Collectors.toList());
+            String cursor) {
+
+        EntityType type;
+        Cursor position;
+        try {
+            type = EntityType.fromClass(entityClass);
+            position = StringUtils.hasText(cursor) ? Cursor.decode(cursor) : null;
+        } catch (IllegalArgumentException | Cursor.InvalidException e) {
+            return Mono.error(e);
         }
 
-        // Sort entities
-        SortStrategy<T> strategy = getSortStrategy(entityClass, sortKey);
-
-        List<T> sorted = filtered.stream()
-                .sorted(strategy.getComparator(direction))
-                .collect(Collectors.toList());
-
-        // Apply pagination
-        int total = sorted.size();
-        int totalPages = (int) Math.ceil(total / (double) size);
-        int from = Math.max(0, Math.min((page - 1) * size, Math.max(0, total - 1)));
-        int to = Math.min(from + size, total);
+        return metrics.time(PipelineMetrics.SNAPSHOT, type, sortKey, snapshotCache.<T>get(type))
+                .map(snapshot -> page(snapshot, page, size, search, sortKey, direction, position));
+    }
 
-        List<T> content = total == 0 ? List.of() : sorted.subList(from, to);
+    /**
+     * Answers several list queries in one go. Each entity type is resolved to a single snapshot for the whole
+     * batch, so all results are consistent with each other, and queries selecting the same page are computed
+     * once. Results are in query order. {@code onStale} is run when any of those snapshots is
+     * {@linkplain SnapshotCache#isStale stale}.
+     */
+    public Mono<List<PageResponse<?>>> batch(List<BatchQuery> queries, Runnable onStale) {
+        List<EntityType> types = new ArrayList<>(queries.size());
+        List<Cursor> cursors = new ArrayList<>(queries.size());
+        try {
+            for (BatchQuery query : queries) {
+                types.add(EntityType.fromPath(query.getType()));
+                cursors.add(StringUtils.hasText(query.getCursor()) ? Cursor.decode(query.getCursor()) : null);
+            }
+        } catch (IllegalArgumentException | Cursor.InvalidException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+        if (queries.isEmpty()) {
+            return Mono.just(List.of());
+        }
 
-        return new PageResponse<>(content, page, size, total, totalPages,
-                sortKey.name(), direction.name(), search);
+        return Flux.fromIterable(EnumSet.copyOf(types))
+                .flatMap(type -> metrics.time(PipelineMetrics.SNAPSHOT, type, null, snapshotCache.get(type)))
+                .collectMap(EntitySnapshot::getType)
+                .map(snapshots -> {
+                    if (snapshots.values().stream().anyMatch(snapshotCache::isStale)) {
+                        onStale.run();
+                    }
+                    Map<String, PageResponse<?>> pages = new HashMap<>();
+                    List<PageResponse<?>> results = new ArrayList<>(queries.size());
+                    for (int i = 0; i < queries.size(); i++) {
+                        BatchQuery query = queries.get(i);
+                        EntitySnapshot<?> snapshot = snapshots.get(types.get(i));
+                        Cursor cursor = cursors.get(i);
+                        PageResponse<?> response = pages.computeIfAbsent(pageKey(types.get(i), query), key -> page(snapshot,
+                                query.getPage(), query.getSize(), query.getSearch(), query.getSort(), query.getDir(), cursor));
+                        results.add(response.withFields(FieldSet.parse(query.getFields())));
+                    }
+                    return results;
+                });
     }
 
-    @SuppressWarnings("unchecked")
-    private <T extends BaseEntity> SortStrategy<T> getSortStrategy(Class<T> entityClass, SortKey sortKey) {
-        SortStrategy<T> strategy = (SortStrategy<T>) strategyMap
-                .getOrDefault(entityClass, Collections.emptyMap())
-                .get(sortKey);
-
-        if (strategy == null) {
-            throw new IllegalArgumentException("No sorting strategy for " + entityClass.getSimpleName() + " and key " + sortKey);
+    private <T extends BaseEntity> PageResponse<T> page(EntitySnapshot<T> snapshot, int page, int size, String search,
+                                                        SortKey sortKey, SortDirection direction, Cursor cursor) {
+        QueryPlan plan = queryEngine.plan(snapshot.getType(), search, sortKey, direction);
+        if (cursor != null) {
+            // seeking is cheap and cursors are rarely repeated, so these pages skip the page cache
+            return queryEngine.page(snapshot, plan, cursor, size);
         }
-        return strategy;
+        return pageCache.get(snapshot, page, size, search, sortKey, direction,
+                () -> queryEngine.page(snapshot, plan, page, size));
     }
 
-    private void initializeSortStrategies() {
-        registerStrategies(Person.class);
-        registerStrategies(Planet.class);
+    // everything that selects the page; the projection is applied per query afterwards
+    private static String pageKey(EntityType type, BatchQuery query) {
+        return type.name() + '\n' + query.getPage() + '\n' + query.getSize() + '\n' + query.getSort() + '\n'
+                + query.getDir() + '\n' + query.getCursor() + '\n' + query.getSearch();
     }
 
-    private <T extends BaseEntity> void registerStrategies(Class<T> entityClass) {
-        Map<SortKey, SortStrategy<?>> strategies = new HashMap<>();
-        strategies.put(SortKey.name, new NameSortStrategy<>());
-        strategies.put(SortKey.created, new CreatedSortStrategy<>());
+    /**
+     * Streams every entity matching the search term, in upstream order.
+     * <p>
+     * A loaded snapshot is streamed from memory. Without one, entities are forwarded as each upstream page
+     * is decoded, so the first items reach the client long before the last page arrives.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> Flux<T> streamEntities(Class<T> entityClass, String search) {
+        EntityType type;
+        try {
+            type = EntityType.fromClass(entityClass);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+
+        // streams come out in upstream order, so the plan's sort is irrelevant
+        QueryPlan plan = queryEngine.plan(type, search, SortKey.name, SortDirection.asc);
+        EntitySnapshot<T> snapshot = snapshotCache.peek(type);
+        if (snapshot != null) {
+            return Flux.fromStream(queryEngine.matching(snapshot, plan));
+        }
 
-        strategyMap.put(entityClass, strategies);
+        Flux<T> upstream = entityLoader.fetchPages(type)
+                .concatMapIterable(page -> page.getResults() == null ? List.<T>of() : (List<T>) page.getResults());
+        if (!plan.hasSearch()) {
+            return upstream;
+        }
+        return upstream.filter(plan.getFilter());
     }
-}
\ No newline at end of file
+}
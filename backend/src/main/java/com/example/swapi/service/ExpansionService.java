@@ -0,0 +1,124 @@
+package com.example.swapi.service;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.dto.ExpandSpec;
+import com.example.swapi.dto.Expansion;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Relation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves {@code expand} relations of a page from the cached snapshots' by-URL indexes, never from upstream.
+ * <p>
+ * Paths deeper than {@code app.expand.max-depth} are rejected. At most {@code app.expand.max-entities}
+ * distinct entities are inlined per page; references past that limit stay plain URLs. Since an entity is
+ * written out again wherever it is referenced, a page whose expansion would inline more than
+ * {@code app.expand.max-inlined} entities in total is rejected.
+ */
+@Service
+public class ExpansionService {
+
+    private final SnapshotCache snapshotCache;
+    private final int maxDepth;
+    private final int maxEntities;
+    private final int maxInlined;
+
+    public ExpansionService(SnapshotCache snapshotCache,
+                            @Value("${app.expand.max-depth:2}") int maxDepth,
+                            @Value("${app.expand.max-entities:200}") int maxEntities,
+                            @Value("${app.expand.max-inlined:1000}") int maxInlined) {
+        this.snapshotCache = snapshotCache;
+        this.maxDepth = maxDepth;
+        this.maxEntities = maxEntities;
+        this.maxInlined = maxInlined;
+    }
+
+    /**
+     * Parses and checks an {@code expand} parameter; {@code null} when nothing is expanded.
+     */
+    public ExpandSpec parse(String expand) {
+        ExpandSpec spec;
+        try {
+            spec = ExpandSpec.parse(expand);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (spec != null && spec.depth() > maxDepth) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expand is limited to depth " + maxDepth);
+        }
+        return spec;
+    }
+
+    public <T extends BaseEntity> Mono<PageResponse<T>> expand(PageResponse<T> page, ExpandSpec spec) {
+        return snapshotCache.getAll(spec.targets())
+                .map(snapshots -> page.withExpansion(resolve(page.getContent(), spec, snapshots)));
+    }
+
+    // breadth first, so when the size guard kicks in the shallow references are the ones inlined
+    private Expansion resolve(List<? extends BaseEntity> content, ExpandSpec spec,
+                              Map<EntityType, ? extends EntitySnapshot<?>> snapshots) {
+        Map<String, BaseEntity> resolved = new HashMap<>();
+        // every occurrence, since the serializer writes the entity out each time it is referenced
+        int inlined = 0;
+        Deque<Pending> pending = new ArrayDeque<>();
+        if (content != null) {
+            for (BaseEntity entity : content) {
+                pending.add(new Pending(entity, spec));
+            }
+        }
+        while (!pending.isEmpty()) {
+            Pending next = pending.poll();
+            BaseEntity entity = next.entity;
+            for (Map.Entry<String, ExpandSpec> expanded : next.spec.getChildren().entrySet()) {
+                Relation relation = Relation.fromProperty(expanded.getKey());
+                if (entity == null || !relation.appliesTo(entity)) {
+                    continue;
+                }
+                EntitySnapshot<?> target = snapshots.get(relation.getTarget());
+                for (String url : relation.urls(entity)) {
+                    BaseEntity referenced = resolved.get(url);
+                    if (referenced == null && resolved.size() < maxEntities && target != null) {
+                        referenced = target.findByUrl(url);
+                        if (referenced != null) {
+                            resolved.put(url, referenced);
+                        }
+                    }
+                    if (referenced == null) {
+                        continue;
+                    }
+                    if (++inlined > maxInlined) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "expand would inline more than " + maxInlined + " entities, request a smaller page");
+                    }
+                    if (!expanded.getValue().getChildren().isEmpty()) {
+                        pending.add(new Pending(referenced, expanded.getValue()));
+                    }
+                }
+            }
+        }
+        return new Expansion(spec, resolved);
+    }
+
+    private static final class Pending {
+        private final BaseEntity entity;
+        private final ExpandSpec spec;
+
+        private Pending(BaseEntity entity, ExpandSpec spec) {
+            this.entity = entity;
+            this.spec = spec;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.swapi.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a request when the first one is slower than a latency percentile, and takes
+ * whichever answer arrives first.
+ * <p>
+ * The hedge delay is the configured percentile of the most recent successful latencies, and no hedging
+ * happens until enough samples exist. It is recomputed every {@value #UPDATE_EVERY} samples, outside the lock,
+ * and read without one, so requests never wait on the sort. Hedges are rate limited by a token bucket that earns
+ * {@code maxRate} tokens per request, so at most that fraction of requests is ever duplicated.
+ */
+public class HedgedRequests {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int UPDATE_EVERY = 16;
+    private static final double MAX_BURST = 10;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration minDelay;
+    private final double maxRate;
+
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private int next;
+    private int sinceUpdate;
+    private volatile Duration delay;
+    private double budget;
+
+    private long requests;
+    private long hedged;
+    private long hedgeWins;
+    private long suppressed;
+
+    public HedgedRequests(boolean enabled, double percentile, Duration minDelay, double maxRate) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("hedge percentile must be between 0 and 1");
+        }
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxRate = maxRate;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            Duration delay = admit();
+            Mono<T> primary = timed(attempt.get(), false);
+            if (delay == null) {
+                return primary;
+            }
+
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            // a primary failure before the hedge is sent cancels the wait, so the error is not held back
+            Mono<T> hedge = Mono.delay(delay)
+                    .takeUntilOther(primaryFailed.asMono())
+                    .filter(tick -> tryHedge())
+                    .flatMap(tick -> timed(attempt.get(), true));
+            // the first value wins and cancels the other attempt; an error only surfaces once neither can answer
+            return Flux.mergeDelayError(1, primary.doOnError(error -> primaryFailed.tryEmitValue(true)), hedge)
+                    .next();
+        });
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("enabled", enabled);
+        values.put("requests", requests);
+        values.put("hedged", hedged);
+        values.put("hedgeWins", hedgeWins);
+        values.put("suppressed", suppressed);
+        Duration current = delay;
+        values.put("hedgeDelayMillis", current == null ? null : current.toMillis());
+        return values;
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt, boolean isHedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnNext(value -> onSuccess(System.nanoTime() - start, isHedge));
+        });
+    }
+
+    private Duration admit() {
+        synchronized (this) {
+            requests++;
+            if (!enabled) {
+                return null;
+            }
+            budget = Math.min(MAX_BURST, budget + maxRate);
+        }
+        return delay;
+    }
+
+    private synchronized boolean tryHedge() {
+        if (budget < 1) {
+            suppressed++;
+            return false;
+        }
+        budget -= 1;
+        hedged++;
+        return true;
+    }
+
+    private void onSuccess(long nanos, boolean isHedge) {
+        long[] window = null;
+        synchronized (this) {
+            latencies[next] = nanos;
+            next = (next + 1) % WINDOW;
+            samples = Math.min(samples + 1, WINDOW);
+            if (isHedge) {
+                hedgeWins++;
+            }
+            if (samples >= MIN_SAMPLES && (delay == null || ++sinceUpdate >= UPDATE_EVERY)) {
+                sinceUpdate = 0;
+                window = Arrays.copyOf(latencies, samples);
+            }
+        }
+        if (window != null) {
+            // concurrent updates may publish out of order; either is a percentile of recent samples
+            delay = percentile(window);
+        }
+    }
+
+    private Duration percentile(long[] window) {
+        Arrays.sort(window);
+        long nanos = window[Math.min(window.length - 1, (int) Math.ceil(percentile * window.length) - 1)];
+        Duration hedgeDelay = Duration.ofNanos(nanos);
+        return hedgeDelay.compareTo(minDelay) < 0 ? minDelay : hedgeDelay;
+    }
+}
@@ -1,75 +1,122 @@
 package com.example.swapi.service;
 
+import com.example.swapi.cache.SingleFlight;
 import com.example.swapi.dto.SwapiPage;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
 import com.example.swapi.model.Person;
 import com.example.swapi.model.Planet;
-import io.netty.handler.ssl.SslContext;
-import io.netty.handler.ssl.SslContextBuilder;
-import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
 
-import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Component
 public class SwapiClient {
 
     private final WebClient client;
     private final String baseUrl;
+    // identical page requests that are already on the wire are shared instead of repeated
+    private final SingleFlight<String, SwapiPage<?>> pageRequests = new SingleFlight<>();
+    private final CircuitBreaker breaker;
+    private final HedgedRequests hedging;
+    private final Duration pageDeadline;
+    private final AtomicLong deadlinesExceeded = new AtomicLong();
+    private final ObjectMapper objectMapper;
+    private final JavaType personPage;
+    private final JavaType planetPage;
+    private final PipelineMetrics metrics;
 
-    public SwapiClient(@Value("${app.swapi-base-url}") String baseUrl) {
+    public SwapiClient(WebClient webClient,
+                       ObjectMapper objectMapper,
+                       PipelineMetrics metrics,
+                       @Value("${app.swapi-base-url}") String baseUrl,
+                       @Value("${app.upstream.breaker.failure-threshold:5}") int failureThreshold,
+                       @Value("${app.upstream.breaker.open-duration:30s}") Duration openDuration,
+                       @Value("${app.upstream.page-deadline:5s}") Duration pageDeadline,
+                       @Value("${app.upstream.hedge.enabled:true}") boolean hedgeEnabled,
+                       @Value("${app.upstream.hedge.percentile:0.95}") double hedgePercentile,
+                       @Value("${app.upstream.hedge.min-delay:50ms}") Duration hedgeMinDelay,
+                       @Value("${app.upstream.hedge.max-rate:0.1}") double hedgeMaxRate) {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-
-        // Create an SSL context that trusts all certificates
-        SslContext sslContext;
-        try {
-            sslContext = SslContextBuilder
-                    .forClient()
-                    .trustManager(InsecureTrustManagerFactory.INSTANCE)
-                    .build();
-        } catch (SSLException e) {
-            throw new RuntimeException("Error creating SSL context", e);
-        }
-
-        // Create HTTP client with the SSL context
-        HttpClient httpClient = HttpClient.create()
-                .secure(sslSpec -> sslSpec.sslContext(sslContext));
-
-        // Build WebClient with custom SSL settings
-        this.client = WebClient.builder()
+        // shares the connector (and connection pool) of the application-wide upstream client
+        this.client = webClient.mutate()
                 .baseUrl(this.baseUrl)
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
+        this.breaker = new CircuitBreaker("swapi", failureThreshold, openDuration);
+        this.hedging = new HedgedRequests(hedgeEnabled, hedgePercentile, hedgeMinDelay, hedgeMaxRate);
+        this.pageDeadline = pageDeadline;
+        this.objectMapper = objectMapper;
+        this.personPage = objectMapper.getTypeFactory().constructParametricType(SwapiPage.class, Person.class);
+        this.planetPage = objectMapper.getTypeFactory().constructParametricType(SwapiPage.class, Planet.class);
+        this.metrics = metrics;
     }
 
     public Mono<SwapiPage<Person>> fetchPeoplePage(int page) {
-        return client.get()
-                .uri(uriBuilder -> uriBuilder.path("/people/").queryParam("page", page).build())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(ParameterizedTypes.personPage());
+        return fetch(EntityType.PEOPLE, page, personPage);
     }
 
     public Mono<SwapiPage<Planet>> fetchPlanetsPage(int page) {
-        return client.get()
-                .uri(uriBuilder -> uriBuilder.path("/planets/").queryParam("page", page).build())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(ParameterizedTypes.planetPage());
+        return fetch(EntityType.PLANETS, page, planetPage);
     }
 
-    // helper to avoid TypeReference repetition
-    static class ParameterizedTypes {
-        static org.springframework.core.ParameterizedTypeReference<SwapiPage<Person>> personPage() {
-            return new org.springframework.core.ParameterizedTypeReference<SwapiPage<Person>>() {};
-        }
-        static org.springframework.core.ParameterizedTypeReference<SwapiPage<Planet>> planetPage() {
-            return new org.springframework.core.ParameterizedTypeReference<SwapiPage<Planet>>() {};
+    public Mono<? extends SwapiPage<? extends BaseEntity>> fetchPage(EntityType type, int page) {
+        return type == EntityType.PEOPLE ? fetchPeoplePage(page) : fetchPlanetsPage(page);
+    }
+
+    public SingleFlight<String, SwapiPage<?>> getPageRequests() {
+        return pageRequests;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    public Map<String, Object> pageStats() {
+        Map<String, Object> values = new LinkedHashMap<>(hedging.stats());
+        values.put("deadlineMillis", pageDeadline.toMillis());
+        values.put("deadlinesExceeded", deadlinesExceeded.get());
+        return values;
+    }
+
+    // the body is read as bytes and decoded separately so that transfer and decode time can be told apart
+    private <T> Mono<SwapiPage<T>> fetch(EntityType type, int page, JavaType pageType) {
+        return coalesce(type.getPath(), page, () -> metrics.time(PipelineMetrics.FETCH, type, null, client.get()
+                        .uri(uriBuilder -> uriBuilder.path("/" + type.getPath() + "/").queryParam("page", page).build())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(byte[].class))
+                .map(body -> metrics.record(PipelineMetrics.DECODE, type, null, () -> this.<T>decode(body, pageType))));
+    }
+
+    private <T> SwapiPage<T> decode(byte[] body, JavaType pageType) {
+        try {
+            return objectMapper.readValue(body, pageType);
+        } catch (IOException e) {
+            throw new DecodingException("Could not decode SWAPI page: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<SwapiPage<T>> coalesce(String path, int page, Supplier<Mono<SwapiPage<T>>> request) {
+        // the deadline covers the hedged pair, and a blown deadline counts against the breaker
+        return pageRequests.execute(path + ":" + page, () -> breaker.protect(hedging.execute(request)
+                                .timeout(pageDeadline)
+                                .doOnError(TimeoutException.class, e -> deadlinesExceeded.incrementAndGet()))
+                        .map(swapiPage -> (SwapiPage<?>) swapiPage))
+                .map(swapiPage -> (SwapiPage<T>) swapiPage);
+    }
+}
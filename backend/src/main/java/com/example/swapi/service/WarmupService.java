@@ -0,0 +1,79 @@
+package com.example.swapi.service;
+
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.model.EntityType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Preloads every entity type (and with it the sort and search indexes) once the application has started.
+ * <p>
+ * The instance only reports ready after every type has a snapshot, so a load balancer gating on readiness
+ * never routes a request down the cold path. Failed loads are retried with backoff until they succeed.
+ */
+@Service
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private final SnapshotCache snapshotCache;
+    private final boolean enabled;
+
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Disposable warmup;
+
+    public WarmupService(SnapshotCache snapshotCache, @Value("${app.warmup.enabled:true}") boolean enabled) {
+        this.snapshotCache = snapshotCache;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        startedAt = Instant.now();
+        warmup = Flux.fromArray(EntityType.values())
+                .flatMap(type -> snapshotCache.get(type)
+                        .doOnError(error -> log.warn("Warm-up of {} failed, retrying: {}", type, error.toString()))
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))))
+                .then()
+                .subscribe(null, error -> log.error("Warm-up aborted", error), () -> {
+                    completedAt = Instant.now();
+                    log.info("Warm-up completed in {} ms", getWarmupDuration().toMillis());
+                });
+    }
+
+    public boolean isReady() {
+        return !enabled || completedAt != null;
+    }
+
+    /**
+     * Time the warm-up took, or has taken so far if it is still running; {@code null} if it never started.
+     */
+    public Duration getWarmupDuration() {
+        if (startedAt == null) {
+            return null;
+        }
+        return Duration.between(startedAt, completedAt != null ? completedAt : Instant.now());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (warmup != null) {
+            warmup.dispose();
+        }
+    }
+}
@@ -18,7 +18,10 @@ public class CreatedSortStrategy<T extends BaseEntity> implements SortStrategy<T
 
     @Override
     public Comparator<T> getComparator(SortDirection direction) {
-        Comparator<T> comparator = Comparator.comparing(entity -> entity.getCreated());
+        Comparator<T> comparator = Comparator.comparing(
+                entity -> entity.getCreated(),
+                Comparator.nullsLast(Comparator.naturalOrder())
+        );
         return direction == SortDirection.desc ? comparator.reversed() : comparator;
     }
 }
\ No newline at end of file
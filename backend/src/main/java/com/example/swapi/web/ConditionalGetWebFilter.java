@@ -0,0 +1,116 @@
+package com.example.swapi.web;
+
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.model.EntityType;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Strong ETag / If-None-Match handling for the entity list endpoints.
+ * <p>
+ * The ETag is derived from the snapshot's content hash and the normalized query string, so it can be checked
+ * before the request reaches any filter, sort or serialization work, and it means the same data in every
+ * process and after a restart. Requests that {@code expand} relations also inline entities of other types, so
+ * their ETag adds the content hashes of those snapshots. Every snapshot used for the check is pinned for the
+ * rest of the request, so a refresh landing mid-request cannot produce a body that does not match its ETag.
+ * Only a 200 response is tagged; an error is not a representation of the page. The precompressed body served
+ * by {@link SerializedPageWebFilter} is a different representation and carries its own ETag,
+ * {@link #gzipVariant}; either one is accepted in If-None-Match.
+ * <p>
+ * Responses built from a snapshot that could not be revalidated against upstream carry
+ * {@value #STALE_HEADER}.
+ */
+@Component
+@Order(0)
+public class ConditionalGetWebFilter implements WebFilter {
+
+    public static final String STALE_HEADER = "X-Snapshot-Stale";
+
+    private final SnapshotCache snapshotCache;
+
+    public ConditionalGetWebFilter(SnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        EntityType type = EntityRequests.listType(exchange.getRequest());
+        HttpMethod method = exchange.getRequest().getMethod();
+        // streaming responses are produced as upstream pages arrive and carry no snapshot version
+        if (type == null || !(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+                || !EntityRequests.acceptsJson(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        Set<EntityType> expanded = EntityRequests.expandedTypes(exchange.getRequest(), type);
+        return snapshotCache.get(type).flatMap(snapshot -> snapshotCache.getAll(expanded == null ? Set.of() : expanded)
+                .flatMap(related -> {
+                    if (snapshotCache.isStale(snapshot) || related.values().stream().anyMatch(snapshotCache::isStale)) {
+                        exchange.getResponse().getHeaders().set(STALE_HEADER, "true");
+                    }
+                    // an invalid expand ends in a 400, which gets no validator
+                    if (expanded != null) {
+                        String etag = etag(type, snapshot.getContentHash(), EntityRequests.dependencyHashes(related),
+                                exchange.getRequest().getQueryParams());
+                        String gzipEtag = gzipVariant(etag);
+                        if (exchange.checkNotModified(requested(exchange.getRequest(), gzipEtag) ? gzipEtag : etag)) {
+                            return exchange.getResponse().setComplete();
+                        }
+                        tagOnSuccess(exchange.getResponse(), etag, gzipEtag);
+                    }
+                    return chain.filter(exchange)
+                            .contextWrite(context -> SnapshotCache.pin(SnapshotCache.pin(context, snapshot), related.values()));
+                }));
+    }
+
+    // checkNotModified already set the header, but only the status at commit time tells whether it applies
+    private static void tagOnSuccess(ServerHttpResponse response, String etag, String gzipEtag) {
+        response.getHeaders().remove(HttpHeaders.ETAG);
+        response.beforeCommit(() -> {
+            HttpStatusCode status = response.getStatusCode();
+            if (status == null || status.value() == HttpStatus.OK.value()) {
+                boolean gzip = "gzip".equals(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+                response.getHeaders().setETag(gzip ? gzipEtag : etag);
+            }
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * The ETag of the gzip-encoded representation of the response tagged {@code etag}.
+     */
+    static String gzipVariant(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static boolean requested(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if (candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String etag(EntityType type, long contentHash, String dependencyHashes,
+                       MultiValueMap<String, String> queryParams) {
+        String normalized = EntityRequests.normalizedQuery(queryParams);
+        String hash = DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+        return "\"" + type.getPath() + "-" + Long.toHexString(contentHash) + "-" + dependencyHashes + hash + "\"";
+    }
+}
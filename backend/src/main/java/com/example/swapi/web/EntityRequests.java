@@ -0,0 +1,93 @@
+package com.example.swapi.web;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.dto.ExpandSpec;
+import com.example.swapi.model.EntityType;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Helpers for recognising requests to the entity list endpoints.
+ */
+final class EntityRequests {
+
+    private EntityRequests() {
+    }
+
+    /**
+     * The entity type listed by this request, or {@code null} if it is not a list endpoint request.
+     */
+    static EntityType listType(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        for (EntityType type : EntityType.values()) {
+            if (path.equals("/" + type.getPath())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The other entity types whose snapshots the response inlines through {@code expand}: empty when nothing
+     * is expanded, {@code null} when the parameter is invalid and the request is going to fail anyway.
+     */
+    static Set<EntityType> expandedTypes(ServerHttpRequest request, EntityType type) {
+        ExpandSpec spec;
+        try {
+            spec = ExpandSpec.parse(request.getQueryParams().getFirst("expand"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (spec == null) {
+            return Set.of();
+        }
+        Set<EntityType> targets = spec.targets();
+        // the list's own snapshot is already covered by its version
+        targets.remove(type);
+        return targets;
+    }
+
+    /**
+     * The content hashes of the related snapshots, in a fixed order, or an empty string when there are none.
+     */
+    static String dependencyHashes(Map<EntityType, ? extends EntitySnapshot<?>> related) {
+        StringBuilder hashes = new StringBuilder();
+        for (EntityType type : EntityType.values()) {
+            EntitySnapshot<?> snapshot = related.get(type);
+            if (snapshot != null) {
+                hashes.append(type.getPath()).append('-').append(Long.toHexString(snapshot.getContentHash())).append('-');
+            }
+        }
+        return hashes.toString();
+    }
+
+    /**
+     * The query parameters sorted by name and value, so equivalent requests produce the same string.
+     */
+    static String normalizedQuery(MultiValueMap<String, String> queryParams) {
+        StringBuilder normalized = new StringBuilder();
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(queryParams).entrySet()) {
+            List<String> values = new ArrayList<>(param.getValue());
+            values.sort(null);
+            for (String value : values) {
+                normalized.append(param.getKey()).append('=').append(value).append('&');
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Whether the client accepts the plain JSON page representation, as opposed to only a streaming one.
+     */
+    static boolean acceptsJson(ServerHttpRequest request) {
+        List<MediaType> accept = request.getHeaders().getAccept();
+        return accept.isEmpty() || accept.stream().anyMatch(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON));
+    }
+}
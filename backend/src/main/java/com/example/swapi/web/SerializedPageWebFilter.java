@@ -0,0 +1,172 @@
+package com.example.swapi.web;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SerializedPageCache;
+import com.example.swapi.cache.SerializedPageCache.SerializedPage;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.SortKey;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * Serves list pages from {@link SerializedPageCache} and fills it from the bodies the controllers produce.
+ * <p>
+ * On a hit the cached bytes are written straight to the response, skipping the controller, Jackson and
+ * any compression work. On a miss the JSON body written by the normal pipeline is captured and cached for
+ * the snapshot version it was computed from. Pages that {@code expand} relations are keyed by the content
+ * hashes of the other snapshots they inline as well.
+ */
+@Component
+@Order(1)
+public class SerializedPageWebFilter implements WebFilter {
+
+    private final SnapshotCache snapshotCache;
+    private final SerializedPageCache pageCache;
+    private final PipelineMetrics metrics;
+
+    public SerializedPageWebFilter(SnapshotCache snapshotCache, SerializedPageCache pageCache, PipelineMetrics metrics) {
+        this.snapshotCache = snapshotCache;
+        this.pageCache = pageCache;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        EntityType type = EntityRequests.listType(request);
+        if (type == null || !HttpMethod.GET.equals(request.getMethod()) || !pageCache.isEnabled() || !EntityRequests.acceptsJson(request)) {
+            return chain.filter(exchange);
+        }
+        Set<EntityType> expanded = EntityRequests.expandedTypes(request, type);
+        if (expanded == null) {
+            return chain.filter(exchange);
+        }
+
+        return snapshotCache.get(type).flatMap(snapshot -> snapshotCache.getAll(expanded).flatMap(related -> {
+            String query = EntityRequests.dependencyHashes(related) + EntityRequests.normalizedQuery(request.getQueryParams());
+            exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            SerializedPage cached = pageCache.get(snapshot, query);
+            if (cached != null) {
+                return write(exchange, cached);
+            }
+
+            ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), snapshot, query, sortKey(request));
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    .contextWrite(context -> SnapshotCache.pin(SnapshotCache.pin(context, snapshot), related.values()));
+        }));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, SerializedPage page) {
+        ServerHttpResponse response = exchange.getResponse();
+        ByteBuffer body = page.identity();
+        ByteBuffer gzip = acceptsGzip(exchange.getRequest()) ? page.gzip() : null;
+        if (gzip != null) {
+            body = gzip;
+            // a different byte representation, which ConditionalGetWebFilter tags with its own validator
+            response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.remaining());
+        // wrap, not copy: every response reads its own view of the shared buffer
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    // mirrors the controllers' default; an unknown key never reaches the capture since it fails with a 400
+    private static SortKey sortKey(ServerHttpRequest request) {
+        String value = request.getQueryParams().getFirst("sort");
+        if (value == null || value.isEmpty()) {
+            return SortKey.name;
+        }
+        try {
+            return SortKey.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String header : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String token : header.split(",")) {
+                String[] parts = token.trim().split(";");
+                if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                    continue;
+                }
+                boolean refused = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim().replace(" ", "");
+                    if (param.startsWith("q=")) {
+                        try {
+                            refused = Double.parseDouble(param.substring(2)) == 0;
+                        } catch (NumberFormatException e) {
+                            refused = false;
+                        }
+                    }
+                }
+                if (!refused) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final EntitySnapshot<? extends BaseEntity> snapshot;
+        private final String query;
+        private final SortKey sortKey;
+
+        CapturingResponse(ServerHttpResponse delegate, EntitySnapshot<? extends BaseEntity> snapshot, String query,
+                          SortKey sortKey) {
+            super(delegate);
+            this.snapshot = snapshot;
+            this.query = query;
+            this.sortKey = sortKey;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            // joining the body is what drives the encoder, so it times serialization
+            return metrics.time(PipelineMetrics.SERIALIZE, snapshot.getType(), sortKey, DataBufferUtils.join(body)).flatMap(joined -> {
+                int length = joined.readableByteCount();
+                ByteBuffer copy = ByteBuffer.allocateDirect(length);
+                joined.toByteBuffer(joined.readPosition(), copy, 0, length);
+                pageCache.put(snapshot, query, copy);
+                return super.writeWith(Mono.just(joined));
+            });
+        }
+
+        private boolean isCacheable() {
+            MediaType contentType = getHeaders().getContentType();
+            return (getStatusCode() == null || getStatusCode().value() == HttpStatus.OK.value())
+                    && getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) == null
+                    && contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+        }
+    }
+}
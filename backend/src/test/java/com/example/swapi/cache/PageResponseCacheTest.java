@@ -0,0 +1,74 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Planet;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PageResponseCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    void testRepeatQueriesAreServedFromCache() {
+        PageResponseCache cache = new PageResponseCache(10, 1000);
+        EntitySnapshot<Planet> snapshot = snapshot(1);
+
+        PageResponse<Planet> first = get(cache, snapshot, 1, "");
+        PageResponse<Planet> second = get(cache, snapshot, 1, "");
+
+        assertSame(first, second);
+        assertEquals(1, computations.get());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByWeight() {
+        // each page weighs 3 entities + 1, so only two fit
+        PageResponseCache cache = new PageResponseCache(10, 8);
+        EntitySnapshot<Planet> snapshot = snapshot(1);
+
+        get(cache, snapshot, 1, "");
+        get(cache, snapshot, 2, "");
+        get(cache, snapshot, 1, "");
+        get(cache, snapshot, 3, "");
+
+        assertEquals(1L, cache.stats().get("evictions"));
+        get(cache, snapshot, 1, "");
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    void testNewSnapshotVersionInvalidatesOlderEntries() {
+        PageResponseCache cache = new PageResponseCache(10, 1000);
+
+        get(cache, snapshot(1), 1, "");
+        get(cache, snapshot(1), 2, "tat");
+        get(cache, snapshot(2), 1, "");
+
+        assertEquals(2L, cache.stats().get("invalidations"));
+        assertEquals(1, cache.stats().get("entries"));
+    }
+
+    private PageResponse<Planet> get(PageResponseCache cache, EntitySnapshot<Planet> snapshot, int page, String search) {
+        return cache.get(snapshot, page, 3, search, SortKey.name, SortDirection.asc, () -> {
+            computations.incrementAndGet();
+            return new PageResponse<>(Collections.nCopies(3, new Planet()), page, 3, 9, 3, "name", "asc", search);
+        });
+    }
+
+    private static EntitySnapshot<Planet> snapshot(long version) {
+        return new EntitySnapshot<>(EntityType.PLANETS, List.of(), version, Instant.now());
+    }
+}
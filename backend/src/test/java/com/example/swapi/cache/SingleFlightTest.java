@@ -0,0 +1,51 @@
+package com.example.swapi.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneExecution() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        Flux<Integer> callers = Flux.range(0, 200)
+                .flatMap(i -> flight.execute("people", () -> Mono.fromCallable(executions::incrementAndGet)
+                        .delayElement(Duration.ofMillis(50))), 200);
+
+        StepVerifier.create(callers)
+                .expectNextCount(200)
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+        assertEquals(200, flight.getCalls());
+        assertEquals(199, flight.getDeduplicated());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void testKeyIsReleasedAfterCompletionAndError() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        StepVerifier.create(flight.execute("planets", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(flight.execute("planets", () -> Mono.fromCallable(executions::incrementAndGet)))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(flight.execute("planets", () -> Mono.fromCallable(executions::incrementAndGet)))
+                .expectNext(2)
+                .verifyComplete();
+
+        assertEquals(0, flight.getDeduplicated());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.service.EntityLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SnapshotCacheTest {
+
+    @Mock
+    private EntityLoader loader;
+
+    private MutableClock clock;
+    private SnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        cache = new SnapshotCache(loader, SnapshotFileStore.disabled(), Duration.ofMinutes(10), Duration.ofMinutes(5), Duration.ofSeconds(1), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void testServesFromMemoryWhileFresh() {
+        when(loader.<Person>loadAll(EntityType.PEOPLE)).thenReturn(Mono.just(List.of(person("Luke Skywalker"))));
+
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getEntities().size() == 1)
+                .verifyComplete();
+
+        clock.advance(Duration.ofMinutes(1));
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 1)
+                .verifyComplete();
+
+        verify(loader, times(1)).loadAll(EntityType.PEOPLE);
+    }
+
+    @Test
+    void testRefreshesAheadWithoutBlocking() {
+        when(loader.<Person>loadAll(EntityType.PEOPLE))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"))))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"), person("Leia Organa"))));
+
+        cache.<Person>get(EntityType.PEOPLE).block();
+        clock.advance(Duration.ofMinutes(6));
+
+        // the stale-but-valid snapshot is returned while the refresh runs
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 1)
+                .verifyComplete();
+
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 2 && snapshot.getEntities().size() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void testReloadsExpiredSnapshot() {
+        when(loader.<Person>loadAll(EntityType.PEOPLE)).thenReturn(Mono.just(List.of(person("Luke Skywalker"))));
+
+        cache.<Person>get(EntityType.PEOPLE).block();
+        clock.advance(Duration.ofMinutes(11));
+
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 2)
+                .verifyComplete();
+        verify(loader, times(2)).loadAll(EntityType.PEOPLE);
+    }
+
+    @Test
+    void testServesLastGoodSnapshotWhenReloadFails() {
+        when(loader.<Person>loadAll(EntityType.PEOPLE))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"))))
+                .thenReturn(Mono.error(new IllegalStateException("upstream down")));
+
+        cache.<Person>get(EntityType.PEOPLE).block();
+        clock.advance(Duration.ofMinutes(11));
+
+        StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 1 && cache.isStale(snapshot))
+                .verifyComplete();
+    }
+
+    @Test
+    void testServesLastGoodSnapshotWhenReloadIsSlow() {
+        SnapshotCache impatient = new SnapshotCache(loader, SnapshotFileStore.disabled(), Duration.ofMinutes(10), Duration.ofMinutes(5), Duration.ofMillis(50), clock);
+        when(loader.<Person>loadAll(EntityType.PEOPLE))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"))))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"), person("Leia Organa"))).delayElement(Duration.ofMillis(300)));
+        try {
+            impatient.<Person>get(EntityType.PEOPLE).block();
+            clock.advance(Duration.ofMinutes(11));
+
+            StepVerifier.create(impatient.<Person>get(EntityType.PEOPLE))
+                    .expectNextMatches(snapshot -> snapshot.getVersion() == 1)
+                    .verifyComplete();
+
+            // the reload the caller gave up on still completes and is published
+            StepVerifier.create(Mono.delay(Duration.ofMillis(500)).then(impatient.<Person>get(EntityType.PEOPLE)))
+                    .expectNextMatches(snapshot -> snapshot.getEntities().size() == 2 && !impatient.isStale(snapshot))
+                    .verifyComplete();
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void testOnlyFirstCallerWaitsForReloadOfExpiredSnapshot() {
+        when(loader.<Person>loadAll(EntityType.PEOPLE))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"))))
+                .thenReturn(Mono.just(List.of(person("Luke Skywalker"), person("Leia Organa"))).delayElement(Duration.ofMillis(500)));
+
+        cache.<Person>get(EntityType.PEOPLE).block();
+        clock.advance(Duration.ofMinutes(11));
+
+        // the first caller starts the reload and waits for it
+        cache.<Person>get(EntityType.PEOPLE).subscribe();
+
+        Duration waited = StepVerifier.create(cache.<Person>get(EntityType.PEOPLE))
+                .expectNextMatches(snapshot -> snapshot.getVersion() == 1)
+                .verifyComplete();
+        assertTrue(waited.compareTo(Duration.ofMillis(250)) < 0, "waited " + waited);
+
+        StepVerifier.create(Mono.delay(Duration.ofMillis(700)).then(cache.<Person>get(EntityType.PEOPLE)))
+                .expectNextMatches(snapshot -> snapshot.getEntities().size() == 2)
+                .verifyComplete();
+        verify(loader, times(2)).loadAll(EntityType.PEOPLE);
+    }
+
+    @Test
+    void testRestoresPersistedSnapshotAndRevalidatesInBackground(@TempDir Path dir) {
+        SnapshotFileStore store = new SnapshotFileStore(dir.toString(), "https://swapi.dev/api", Duration.ofDays(7));
+        Person luke = person("Luke Skywalker");
+        luke.setCreated(OffsetDateTime.parse("2014-12-09T13:50:51.644000Z"));
+        luke.setFilms(List.of("https://swapi.dev/api/films/1/", "https://swapi.dev/api/films/2/"));
+        store.write(new EntitySnapshot<>(EntityType.PEOPLE, List.of(luke), 7, clock.instant().minus(Duration.ofDays(2))));
+
+        // upstream is down: the restored snapshot keeps being served even though it is older than the ttl
+        when(loader.<Person>loadAll(EntityType.PEOPLE)).thenReturn(Mono.error(new IllegalStateException("upstream down")));
+        SnapshotCache restarted = new SnapshotCache(loader, store, Duration.ofMinutes(10), Duration.ofMinutes(5), Duration.ofSeconds(1), clock);
+        try {
+            StepVerifier.create(restarted.<Person>get(EntityType.PEOPLE))
+                    .expectNextMatches(snapshot -> {
+                        Person restored = snapshot.getEntities().get(0);
+                        return snapshot.isRestored()
+                                && restored.getName().equals(luke.getName())
+                                && restored.getCreated().equals(luke.getCreated())
+                                && restored.getFilms().equals(luke.getFilms())
+                                && restored.getHomeworld() == null;
+                    })
+                    .verifyComplete();
+        } finally {
+            restarted.shutdown();
+        }
+        verify(loader, atLeastOnce()).loadAll(EntityType.PEOPLE);
+    }
+
+    private static Person person(String name) {
+        Person person = new Person();
+        person.setName(name);
+        return person;
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() { return instant; }
+    }
+}
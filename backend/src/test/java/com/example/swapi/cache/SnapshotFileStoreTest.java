@@ -0,0 +1,98 @@
+package com.example.swapi.cache;
+
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Planet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SnapshotFileStoreTest {
+
+    private static final String UPSTREAM = "https://swapi.dev/api";
+    private static final Instant LOADED_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRestoresOnlyFromSameUpstream() {
+        new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofDays(1)).write(snapshot());
+
+        assertNotNull(new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofDays(1))
+                .read(EntityType.PLANETS, LOADED_AT.plusSeconds(60)));
+        assertNull(new SnapshotFileStore(dir.toString(), "http://127.0.0.1:8099/api", Duration.ofDays(1))
+                .read(EntityType.PLANETS, LOADED_AT.plusSeconds(60)));
+    }
+
+    @Test
+    void testRestoredSnapshotKeepsItsContentHash() {
+        SnapshotFileStore store = new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofDays(1));
+        EntitySnapshot<Planet> written = snapshot();
+        store.write(written);
+
+        SnapshotFileStore.Stored<Planet> stored = store.read(EntityType.PLANETS, LOADED_AT);
+        assertEquals(written.getContentHash(), stored.getContentHash());
+        assertEquals(written.getContentHash(), SnapshotFileStore.contentHash(stored.getEntities()));
+    }
+
+    @Test
+    void testIgnoresFilesOlderThanMaxAge() {
+        SnapshotFileStore store = new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofHours(24));
+        store.write(snapshot());
+
+        assertNotNull(store.read(EntityType.PLANETS, LOADED_AT.plus(Duration.ofHours(23))));
+        assertNull(store.read(EntityType.PLANETS, LOADED_AT.plus(Duration.ofHours(25))));
+    }
+
+    @Test
+    void testCorruptLengthIsRejectedWithoutAllocating() throws IOException {
+        SnapshotFileStore store = new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofDays(1));
+        store.write(snapshot());
+        Path file = dir.resolve("planets.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        // magic, format, upstream, loadedAt, content hash: then the entity count, then the first name's length
+        int count = 4 + 4 + 4 + UPSTREAM.length() + 8 + 8;
+        ByteBuffer.wrap(bytes).putInt(count + 4, Integer.MAX_VALUE - 8);
+        Files.write(file, bytes);
+
+        assertNull(store.read(EntityType.PLANETS, LOADED_AT));
+
+        ByteBuffer.wrap(bytes).putInt(count, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+
+        assertNull(store.read(EntityType.PLANETS, LOADED_AT));
+    }
+
+    @Test
+    void testFailedWriteLeavesNoTemporaryFile() throws IOException {
+        // a non-empty directory where the snapshot file belongs makes the final move fail
+        Files.createDirectories(dir.resolve("planets.snapshot"));
+        Files.createFile(dir.resolve("planets.snapshot").resolve("keep"));
+
+        new SnapshotFileStore(dir.toString(), UPSTREAM, Duration.ofDays(1)).write(snapshot());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("planets.snapshot"), files.map(path -> path.getFileName().toString()).collect(Collectors.toList()));
+        }
+    }
+
+    private static EntitySnapshot<Planet> snapshot() {
+        Planet planet = new Planet();
+        planet.setName("Tatooine");
+        planet.setUrl("https://swapi.dev/api/planets/1/");
+        return new EntitySnapshot<>(EntityType.PLANETS, List.of(planet), 1, LOADED_AT);
+    }
+}
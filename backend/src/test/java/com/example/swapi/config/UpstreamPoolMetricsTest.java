@@ -0,0 +1,67 @@
+package com.example.swapi.config;
+
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionPoolMetrics;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpstreamPoolMetricsTest {
+
+    @Test
+    void testAggregatesRegisteredPoolsUntilDeregistered() {
+        UpstreamPoolMetrics metrics = new UpstreamPoolMetrics();
+        InetSocketAddress address = InetSocketAddress.createUnresolved("swapi.dev", 443);
+
+        metrics.registerMetrics("swapi", "a", address, pool(3, 2, 1, 50));
+        metrics.registerMetrics("swapi", "b", address, pool(1, 0, 4, 50));
+
+        Map<String, Object> stats = metrics.stats();
+        assertEquals(2, stats.get("pools"));
+        assertEquals(4, stats.get("active"));
+        assertEquals(2, stats.get("idle"));
+        assertEquals(6, stats.get("allocated"));
+        assertEquals(5, stats.get("pendingAcquires"));
+        assertEquals(100, stats.get("maxConnections"));
+
+        metrics.deRegisterMetrics("swapi", "b", address);
+        assertEquals(1, metrics.stats().get("pools"));
+        assertEquals(3, metrics.stats().get("active"));
+    }
+
+    private static ConnectionPoolMetrics pool(int acquired, int idle, int pending, int max) {
+        return new ConnectionPoolMetrics() {
+            @Override
+            public int acquiredSize() {
+                return acquired;
+            }
+
+            @Override
+            public int allocatedSize() {
+                return acquired + idle;
+            }
+
+            @Override
+            public int idleSize() {
+                return idle;
+            }
+
+            @Override
+            public int pendingAcquireSize() {
+                return pending;
+            }
+
+            @Override
+            public int maxAllocatedSize() {
+                return max;
+            }
+
+            @Override
+            public int maxPendingAcquireSize() {
+                return 500;
+            }
+        };
+    }
+}
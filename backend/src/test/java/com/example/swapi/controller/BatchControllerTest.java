@@ -0,0 +1,128 @@
+package com.example.swapi.controller;
+
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.cache.SnapshotFileStore;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import com.example.swapi.query.QueryEngine;
+import com.example.swapi.service.EntityLoader;
+import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.web.ConditionalGetWebFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = BatchController.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebFilter.class))
+public class BatchControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void testAnswersEveryQueryOfBatch() {
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        Map.of("type", "people", "size", 2, "dir", "asc"),
+                        Map.of("type", "PLANETS", "fields", "name")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ConditionalGetWebFilter.STALE_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].content[0].name").isEqualTo("Han")
+                .jsonPath("$[0].content.length()").isEqualTo(2)
+                .jsonPath("$[1].content[0].name").isEqualTo("Hoth")
+                .jsonPath("$[1].content[0].climate").doesNotExist();
+    }
+
+    @Test
+    void testRejectsOversizedBatch() {
+        List<Map<String, Object>> queries = new ArrayList<>(Collections.nCopies(BatchController.MAX_QUERIES + 1,
+                Map.of("type", "people")));
+
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(queries)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testRejectsUnknownType() {
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("type", "people"), Map.of("type", "starships")))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testRejectsInvalidQuery() {
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("type", "people", "page", 0)))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SnapshotCache snapshotCache() {
+            EntityLoader loader = mock(EntityLoader.class);
+            when(loader.<BaseEntity>loadAll(EntityType.PEOPLE))
+                    .thenReturn(Mono.just(List.of(person("Luke"), person("Leia"), person("Han"))));
+            when(loader.<BaseEntity>loadAll(EntityType.PLANETS))
+                    .thenReturn(Mono.just(List.of(planet("Hoth"), planet("Endor"))));
+            return new SnapshotCache(loader, SnapshotFileStore.disabled(),
+                    Duration.ofDays(1), Duration.ofDays(1), Duration.ofSeconds(1));
+        }
+
+        @Bean
+        EntityQueryService entityQueryService(SnapshotCache snapshotCache) {
+            PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+            return new EntityQueryService(snapshotCache, new PageResponseCache(0, 0), null,
+                    new QueryEngine(metrics, 16), metrics);
+        }
+
+        private static Person person(String name) {
+            Person person = new Person();
+            person.setName(name);
+            person.setUrl("https://swapi.dev/api/people/" + name + "/");
+            return person;
+        }
+
+        private static Planet planet(String name) {
+            Planet planet = new Planet();
+            planet.setName(name);
+            planet.setClimate("frozen");
+            planet.setUrl("https://swapi.dev/api/planets/" + name + "/");
+            return planet;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.swapi.controller;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Planet;
+import com.example.swapi.service.WarmupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HealthControllerTest {
+
+    @Mock
+    private WarmupService warmupService;
+
+    @Mock
+    private SnapshotCache snapshotCache;
+
+    @InjectMocks
+    private HealthController controller;
+
+    @Test
+    void testLivenessIsAlwaysUp() {
+        assertEquals("UP", controller.live().get("status"));
+    }
+
+    @Test
+    void testNotReadyWhileWarmingUp() {
+        when(warmupService.isReady()).thenReturn(false);
+        when(warmupService.getWarmupDuration()).thenReturn(Duration.ofMillis(250));
+
+        ResponseEntity<Map<String, Object>> response = controller.ready();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("WARMING_UP", response.getBody().get("status"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReadyReportsSnapshotDetails() {
+        when(warmupService.isReady()).thenReturn(true);
+        when(warmupService.getWarmupDuration()).thenReturn(Duration.ofMillis(1200));
+        when(snapshotCache.peek(EntityType.PEOPLE)).thenReturn(null);
+        when(snapshotCache.<Planet>peek(EntityType.PLANETS)).thenReturn(
+                new EntitySnapshot<>(EntityType.PLANETS, List.of(new Planet(), new Planet()), 4, Instant.now()));
+
+        ResponseEntity<Map<String, Object>> response = controller.ready();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1200L, response.getBody().get("warmupMillis"));
+        Map<String, Object> planets = (Map<String, Object>) ((Map<String, Object>) response.getBody().get("snapshots")).get("planets");
+        assertEquals(2, planets.get("entities"));
+        assertEquals(4L, planets.get("version"));
+        assertEquals(Map.of("loaded", false), ((Map<String, Object>) response.getBody().get("snapshots")).get("people"));
+    }
+}
@@ -4,21 +4,28 @@ package com.example.swapi.controller;
 import com.example.swapi.dto.PageResponse;
 import com.example.swapi.model.Person;
 import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.service.ExpansionService;
 import com.example.swapi.sort.SortDirection;
 import com.example.swapi.sort.SortKey;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +35,9 @@ public class PeopleControllerTest {
     @Mock
     private EntityQueryService queryService;
 
+    @Mock
+    private ExpansionService expansionService;
+
     @InjectMocks
     private PeopleController controller;
 
@@ -49,10 +59,10 @@ public class PeopleControllerTest {
     @Test
     void testGetPeopleWithDefaultParams() {
         when(queryService.getEntities(eq(Person.class), eq(1), eq(15), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(mockPageResponse));
 
-        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getContent().size() == 1 &&
                                 response.getContent().get(0).getName().equals("Luke Skywalker") &&
@@ -73,10 +83,10 @@ public class PeopleControllerTest {
         );
 
         when(queryService.getEntities(eq(Person.class), eq(2), eq(10), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(customPageResponse));
 
-        StepVerifier.create(controller.getPeople(2, 10, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPeople(2, 10, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getPage() == 2 &&
                                 response.getSize() == 10)
@@ -97,10 +107,10 @@ public class PeopleControllerTest {
         );
 
         when(queryService.getEntities(eq(Person.class), eq(1), eq(15), eq("Luke"),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(searchResponse));
 
-        StepVerifier.create(controller.getPeople(1, 15, "Luke", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPeople(1, 15, "Luke", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response -> response.getSearch().equals("Luke"))
                 .verifyComplete();
     }
@@ -119,24 +129,59 @@ public class PeopleControllerTest {
         );
 
         when(queryService.getEntities(eq(Person.class), eq(1), eq(15), eq(""),
-                eq(SortKey.created), eq(SortDirection.desc)))
+                eq(SortKey.created), eq(SortDirection.desc), isNull()))
                 .thenReturn(Mono.just(sortResponse));
 
-        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.created, SortDirection.desc))
+        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.created, SortDirection.desc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getSort().equals("created") &&
                                 response.getDirection().equals("desc"))
                 .verifyComplete();
     }
 
+    @Test
+    void testGetPeopleProjectsRequestedFields() throws Exception {
+        mockPageResponse.getContent().get(0).setFilms(List.of("https://swapi.dev/api/films/1/"));
+        when(queryService.getEntities(eq(Person.class), eq(1), eq(15), eq(""),
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
+                .thenReturn(Mono.just(mockPageResponse));
+
+        PageResponse<Person> response = controller.getPeople(1, 15, "", SortKey.name, SortDirection.asc,
+                "name, films,unknown", null, "").block();
+        JsonNode json = new ObjectMapper().findAndRegisterModules().valueToTree(response);
+
+        JsonNode person = json.get("content").get(0);
+        assertEquals(List.of("name", "films"), fieldNames(person));
+        assertEquals("https://swapi.dev/api/films/1/", person.get("films").get(0).asText());
+        assertEquals(1, json.get("totalElements").asInt());
+        // the cached page itself is left unprojected
+        assertNull(mockPageResponse.getFields());
+    }
+
     @Test
     void testGetPeopleHandlesError() {
         when(queryService.getEntities(eq(Person.class), eq(1), eq(15), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.error(new RuntimeException("Service error")));
 
-        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPeople(1, 15, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectError(RuntimeException.class)
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamPeople() {
+        when(queryService.streamEntities(eq(Person.class), eq("")))
+                .thenReturn(Flux.fromIterable(mockPageResponse.getContent()));
+
+        StepVerifier.create(controller.streamPeople(""))
+                .expectNextMatches(entity -> entity.getName().equals("Luke Skywalker"))
+                .verifyComplete();
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
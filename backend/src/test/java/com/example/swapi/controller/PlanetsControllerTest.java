@@ -3,6 +3,7 @@ package com.example.swapi.controller;
 import com.example.swapi.dto.PageResponse;
 import com.example.swapi.model.Planet;
 import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.service.ExpansionService;
 import com.example.swapi.sort.SortDirection;
 import com.example.swapi.sort.SortKey;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -18,6 +20,7 @@ import java.time.OffsetDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +29,9 @@ public class PlanetsControllerTest {
     @Mock
     private EntityQueryService queryService;
 
+    @Mock
+    private ExpansionService expansionService;
+
     @InjectMocks
     private PlanetsController controller;
 
@@ -48,10 +54,10 @@ public class PlanetsControllerTest {
     @Test
     void testGetPlanetsWithDefaultParams() {
         when(queryService.getEntities(eq(Planet.class), eq(1), eq(15), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(mockPageResponse));
 
-        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getContent().size() == 1 &&
                                 response.getContent().get(0).getName().equals("Tatooine") &&
@@ -72,10 +78,10 @@ public class PlanetsControllerTest {
         );
 
         when(queryService.getEntities(eq(Planet.class), eq(2), eq(10), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(customPageResponse));
 
-        StepVerifier.create(controller.getPlanets(2, 10, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPlanets(2, 10, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getPage() == 2 &&
                                 response.getSize() == 10)
@@ -96,10 +102,10 @@ public class PlanetsControllerTest {
         );
 
         when(queryService.getEntities(eq(Planet.class), eq(1), eq(15), eq("Tatooine"),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.just(searchResponse));
 
-        StepVerifier.create(controller.getPlanets(1, 15, "Tatooine", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPlanets(1, 15, "Tatooine", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectNextMatches(response -> response.getSearch().equals("Tatooine"))
                 .verifyComplete();
     }
@@ -118,10 +124,10 @@ public class PlanetsControllerTest {
         );
 
         when(queryService.getEntities(eq(Planet.class), eq(1), eq(15), eq(""),
-                eq(SortKey.created), eq(SortDirection.desc)))
+                eq(SortKey.created), eq(SortDirection.desc), isNull()))
                 .thenReturn(Mono.just(sortResponse));
 
-        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.created, SortDirection.desc))
+        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.created, SortDirection.desc, "", null, ""))
                 .expectNextMatches(response ->
                         response.getSort().equals("created") &&
                                 response.getDirection().equals("desc"))
@@ -131,11 +137,21 @@ public class PlanetsControllerTest {
     @Test
     void testGetPlanetsHandlesError() {
         when(queryService.getEntities(eq(Planet.class), eq(1), eq(15), eq(""),
-                eq(SortKey.name), eq(SortDirection.asc)))
+                eq(SortKey.name), eq(SortDirection.asc), isNull()))
                 .thenReturn(Mono.error(new RuntimeException("Service error")));
 
-        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.name, SortDirection.asc))
+        StepVerifier.create(controller.getPlanets(1, 15, "", SortKey.name, SortDirection.asc, "", null, ""))
                 .expectError(RuntimeException.class)
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamPlanets() {
+        when(queryService.streamEntities(eq(Planet.class), eq("")))
+                .thenReturn(Flux.fromIterable(mockPageResponse.getContent()));
+
+        StepVerifier.create(controller.streamPlanets(""))
+                .expectNextMatches(entity -> entity.getName().equals("Tatooine"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.swapi.index;
+
+import com.example.swapi.model.Planet;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import com.example.swapi.sort.SortStrategyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SortIndexTest {
+
+    private final List<Planet> planets = List.of(
+            planet("tatooine", 3),
+            planet("Alderaan", 1),
+            planet("Yavin IV", 5),
+            planet("Hoth", 2),
+            planet(null, 4));
+
+    @Test
+    void testSlicesByNameInBothDirections() {
+        SortIndex index = index(planets);
+
+        assertEquals(List.of("Alderaan", "Hoth", "tatooine", "Yavin IV"),
+                names(slice(index, planets, SortKey.name, SortDirection.asc, 0, 4)));
+        assertEquals(List.of("Yavin IV", "tatooine"),
+                names(slice(index, planets, SortKey.name, SortDirection.desc, 1, 3)));
+    }
+
+    @Test
+    void testSlicesByCreated() {
+        SortIndex index = index(planets);
+
+        assertEquals(List.of("Alderaan", "Hoth", "tatooine"),
+                names(slice(index, planets, SortKey.created, SortDirection.asc, 0, 3)));
+        assertEquals(List.of("Yavin IV", "", "tatooine"),
+                names(slice(index, planets, SortKey.created, SortDirection.desc, 0, 3)));
+    }
+
+    @Test
+    void testTiesKeepUpstreamOrderInBothDirections() {
+        List<Planet> tied = List.of(planet("Naboo", 2), planet("Hoth", 1), planet("naboo", 2), planet("NABOO", 3));
+        SortIndex index = index(tied);
+
+        assertEquals(List.of("Naboo", "naboo", "NABOO", "Hoth"),
+                names(slice(index, tied, SortKey.name, SortDirection.desc, 0, 4)));
+        assertEquals(List.of("NABOO", "Naboo", "naboo", "Hoth"),
+                names(slice(index, tied, SortKey.created, SortDirection.desc, 0, 4)));
+        for (int position = 0; position < tied.size(); position++) {
+            int row = index.rowAt(SortKey.name, SortDirection.desc, position);
+            assertEquals(position, index.positionOf(SortKey.name, SortDirection.desc, row));
+        }
+    }
+
+    @Test
+    void testTopMatchesFullOrderForShallowAndDeepLimits() {
+        Random random = new Random(7);
+        List<Planet> many = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // few distinct values, so ties have to be broken the same way as the full order
+            many.add(planet("planet " + random.nextInt(50), 1 + random.nextInt(28)));
+        }
+        SortIndex index = index(many);
+        int[] subset = IntStream.range(0, many.size()).filter(row -> row % 3 != 0).toArray();
+
+        for (SortKey key : SortKey.values()) {
+            for (SortDirection direction : SortDirection.values()) {
+                int[] expected = index.order(subset.clone(), key, direction);
+                for (int limit : new int[] {1, 15, 41, 200, subset.length}) {
+                    int[] rows = subset.clone();
+                    int[] top = index.top(rows, key, direction, limit);
+                    assertArrayEquals(subset, rows, "top() must not reorder its input");
+                    assertArrayEquals(Arrays.copyOf(expected, limit), Arrays.copyOf(top, limit),
+                            key + " " + direction + " limit " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testColumnOrderMatchesSortStrategies() {
+        Random random = new Random(11);
+        String[] stems = {"Naboo", "naboo", "\u00c9ADU", "\u00e9adu", "Kashyyyk", "Mon Cala", "mon cala", "\u0131ego", "Iego"};
+        List<Planet> many = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Planet planet = planet(random.nextInt(10) == 0 ? null : stems[random.nextInt(stems.length)],
+                    1 + random.nextInt(28));
+            planet.setCreated(random.nextInt(10) == 0 ? null
+                    : planet.getCreated().plusNanos(random.nextInt(1000) * 1_000L));
+            many.add(planet);
+        }
+        SortIndex index = index(many);
+        SortStrategyFactory<Planet> strategies = new SortStrategyFactory<>();
+
+        for (SortKey key : SortKey.values()) {
+            for (SortDirection direction : SortDirection.values()) {
+                List<Planet> expected = new ArrayList<>(many);
+                expected.sort(strategies.getStrategy(key).getComparator(direction));
+                assertEquals(describe(expected), describe(slice(index, many, key, direction, 0, many.size())),
+                        key + " " + direction);
+            }
+        }
+    }
+
+    private static SortIndex index(List<Planet> planets) {
+        return SortIndex.build(EntityColumns.of(planets));
+    }
+
+    private static List<Planet> slice(SortIndex index, List<Planet> planets, SortKey key, SortDirection direction,
+                                      int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(position -> planets.get(index.rowAt(key, direction, position)))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> describe(List<Planet> planets) {
+        return planets.stream().map(p -> p.getName() + "@" + p.getCreated()).collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Planet> planets) {
+        return planets.stream().map(p -> p.getName() == null ? "" : p.getName()).collect(Collectors.toList());
+    }
+
+    private static Planet planet(String name, int day) {
+        Planet planet = new Planet();
+        planet.setName(name);
+        planet.setCreated(OffsetDateTime.of(2014, 12, day, 0, 0, 0, 0, ZoneOffset.UTC));
+        return planet;
+    }
+}
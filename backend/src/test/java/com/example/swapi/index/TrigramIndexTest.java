@@ -0,0 +1,44 @@
+package com.example.swapi.index;
+
+import com.example.swapi.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TrigramIndexTest {
+
+    private final List<Person> people = Stream.of(
+                    "Luke Skywalker", "Darth Vader", "Leia Organa", "Anakin Skywalker", null, "Owen Lars", "Beru Whitesun lars")
+            .map(name -> {
+                Person person = new Person();
+                person.setName(name);
+                return person;
+            })
+            .collect(Collectors.toList());
+
+    private final TrigramIndex index = TrigramIndex.build(people);
+
+    @Test
+    void testSubstringQueriesAreCaseInsensitive() {
+        assertArrayEquals(new int[]{0, 3}, index.search("SKYWALKER"));
+        assertArrayEquals(new int[]{5, 6}, index.search("lars"));
+        assertArrayEquals(new int[]{1}, index.search("th va"));
+    }
+
+    @Test
+    void testVerifiesCandidatesAgainstTheFullSubstring() {
+        // every trigram of "kywalkerx" but the last is present in "skywalker" rows
+        assertArrayEquals(new int[0], index.search("kywalkerx"));
+        assertArrayEquals(new int[0], index.search("walker luke"));
+    }
+
+    @Test
+    void testShortQueriesFallBackToScan() {
+        assertArrayEquals(new int[]{0, 3}, index.search("k"));
+        assertArrayEquals(new int[]{2, 3}, index.search("an"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.swapi.loadtest;
+
+import com.example.swapi.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pushes concurrent traffic through {@code /api/people} and {@code /api/planets} and reports throughput and
+ * p50/p99/p999 latency per endpoint.
+ * <p>
+ * By default it starts a {@link StandInSwapiServer} and the application itself (on a random port, pointed
+ * at the stand-in), waits for readiness, runs a warm-up and then the measured phase. Set
+ * {@code loadtest.target} to drive an already running backend instead. Run it with
+ * {@code mvn -Ploadtest verify}; every setting is a {@code loadtest.*} system property (see README).
+ */
+public class LoadDriver {
+
+    private static final String[] SEARCHES = {"sky", "org", "an", "luke", "tatooine", "zz"};
+    private static final String[] SORTS = {"name", "created"};
+    private static final String[] DIRECTIONS = {"asc", "desc"};
+
+    public static void main(String[] args) {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+        double searchRatio = Double.parseDouble(System.getProperty("loadtest.search-ratio", "0.3"));
+        String target = System.getProperty("loadtest.target", "");
+
+        StandInSwapiServer upstream = null;
+        ConfigurableApplicationContext application = null;
+        ConnectionProvider connections = ConnectionProvider.create("loadtest", concurrency);
+        try {
+            if (target.isEmpty()) {
+                StandInSwapiServer.Config config = StandInSwapiServer.Config.fromSystemProperties();
+                upstream = new StandInSwapiServer(config).start();
+                System.out.println("Stand-in SWAPI on " + upstream.baseUrl() + " (" + config + ")");
+                application = SpringApplication.run(Application.class,
+                        "--server.port=0",
+                        "--app.swapi-base-url=" + upstream.baseUrl(),
+                        "--app.snapshot.store-dir=",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.springframework.web.reactive=WARN");
+                int port = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+                target = "http://127.0.0.1:" + port + "/api";
+            }
+            System.out.println("Target " + target + ", concurrency " + concurrency + ", warm-up " + warmup.getSeconds()
+                    + "s, measuring " + duration.getSeconds() + "s");
+
+            HttpClient client = HttpClient.create(connections).baseUrl(target);
+            awaitReady(client);
+
+            run(client, concurrency, warmup, searchRatio, new Results());
+            Results results = new Results();
+            long start = System.nanoTime();
+            run(client, concurrency, duration, searchRatio, results);
+            results.print(System.nanoTime() - start);
+            if (upstream != null) {
+                System.out.printf(Locale.ROOT, "Upstream: %d requests, %d injected errors%n", upstream.requests(), upstream.injectedErrors());
+            }
+        } finally {
+            connections.dispose();
+            if (application != null) {
+                application.close();
+            }
+            if (upstream != null) {
+                upstream.stop();
+            }
+        }
+    }
+
+    private static void awaitReady(HttpClient client) {
+        Integer status = client.get().uri("/health/ready")
+                .response((response, body) -> body.then(Mono.just(response.status().code())))
+                .next()
+                .onErrorReturn(-1)
+                .filter(code -> code == 200)
+                .repeatWhenEmpty(Integer.MAX_VALUE, attempts -> attempts.delayElements(Duration.ofMillis(250)))
+                .block(Duration.ofMinutes(2));
+        if (status == null) {
+            throw new IllegalStateException("Target never became ready");
+        }
+    }
+
+    private static void run(HttpClient client, int concurrency, Duration duration, double searchRatio, Results results) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> request(client, searchRatio, results))
+                        .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .blockLast();
+    }
+
+    private static Mono<Void> request(HttpClient client, double searchRatio, Results results) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String endpoint = random.nextBoolean() ? "/people" : "/planets";
+        StringBuilder uri = new StringBuilder(endpoint)
+                .append("?page=").append(1 + random.nextInt(4))
+                .append("&size=").append(random.nextBoolean() ? 15 : 30)
+                .append("&sort=").append(SORTS[random.nextInt(SORTS.length)])
+                .append("&dir=").append(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        if (random.nextDouble() < searchRatio) {
+            uri.append("&search=").append(SEARCHES[random.nextInt(SEARCHES.length)]);
+        }
+
+        long start = System.nanoTime();
+        return client.get().uri(uri.toString())
+                .response((response, body) -> body.then(Mono.just(response.status().code())))
+                .next()
+                .onErrorReturn(-1)
+                .doOnNext(status -> results.record(endpoint, System.nanoTime() - start, status >= 200 && status < 400))
+                .then();
+    }
+
+    /**
+     * Latencies per endpoint, kept in full so percentiles are exact.
+     */
+    static class Results {
+        private final Map<String, Recorder> recorders = new TreeMap<>();
+
+        synchronized void record(String endpoint, long nanos, boolean ok) {
+            recorders.computeIfAbsent(endpoint, key -> new Recorder()).record(nanos, ok);
+        }
+
+        synchronized void print(long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            Recorder total = new Recorder();
+            System.out.printf(Locale.ROOT, "%n%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            recorders.forEach((endpoint, recorder) -> {
+                recorder.print(endpoint, seconds);
+                total.merge(recorder);
+            });
+            total.print("total", seconds);
+        }
+    }
+
+    static class Recorder {
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        void print(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, count, errors, count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
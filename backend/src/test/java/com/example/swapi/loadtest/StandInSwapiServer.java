@@ -0,0 +1,235 @@
+package com.example.swapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the SWAPI {@code /people} and {@code /planets} list endpoints.
+ * <p>
+ * Serves a synthetic dataset of configurable size in SWAPI's page format, with injectable latency, jitter
+ * and error rate, so the backend can be exercised without network access and under reproducible upstream
+ * conditions. Pages are serialized once at startup; only the injected delay costs time per request.
+ */
+public class StandInSwapiServer {
+
+    private static final String[] FIRST = {"Luke", "Leia", "Han", "Padme", "Obi-Wan", "Mace", "Jyn", "Cassian", "Bail", "Mon"};
+    private static final String[] LAST = {"Skywalker", "Organa", "Solo", "Amidala", "Kenobi", "Windu", "Erso", "Andor", "Mothma", "Tano"};
+    private static final String[] WORLDS = {"Tatooine", "Alderaan", "Yavin", "Hoth", "Dagobah", "Bespin", "Endor", "Naboo", "Coruscant", "Kamino"};
+    private static final int PAGE_SIZE = 10;
+
+    private final Config config;
+    private final Map<String, List<byte[]>> pages = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private DisposableServer server;
+
+    public StandInSwapiServer(Config config) {
+        this.config = config;
+    }
+
+    public StandInSwapiServer start() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(config.port)
+                .route(routes -> routes
+                        .get("/api/people/", (request, response) -> serve("people", request, response))
+                        .get("/api/planets/", (request, response) -> serve("planets", request, response)))
+                .bindNow();
+
+        // built after binding, so the links in the pages carry the real port
+        ObjectMapper mapper = new ObjectMapper();
+        pages.put("people", paginate(mapper, baseUrl(), "people", people(baseUrl(), config.people, config.planets)));
+        pages.put("planets", paginate(mapper, baseUrl(), "planets", planets(baseUrl(), config.planets, config.people)));
+        return this;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port() + "/api";
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Mono<Void> serve(String kind, HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        List<byte[]> kindPages = pages.get(kind);
+        int page = page(request.uri());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = config.latency.toMillis() + (config.jitter.isZero() ? 0 : random.nextLong(config.jitter.toMillis() + 1));
+        boolean fail = config.errorRate > 0 && random.nextDouble() < config.errorRate;
+
+        return Mono.delay(Duration.ofMillis(delay)).then(Mono.defer(() -> {
+            if (fail) {
+                injectedErrors.incrementAndGet();
+                return json(response.status(HttpResponseStatus.SERVICE_UNAVAILABLE), "{\"detail\":\"Injected failure\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            if (page < 1 || page > kindPages.size()) {
+                return json(response.status(HttpResponseStatus.NOT_FOUND), "{\"detail\":\"Not found\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            return json(response, kindPages.get(page - 1));
+        }));
+    }
+
+    private static Mono<Void> json(HttpServerResponse response, byte[] body) {
+        return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length))
+                .sendByteArray(Mono.just(body))
+                .then();
+    }
+
+    private static int page(String uri) {
+        List<String> values = new QueryStringDecoder(uri).parameters().get("page");
+        if (values == null || values.isEmpty()) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(values.get(0));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static List<byte[]> paginate(ObjectMapper mapper, String baseUrl, String kind, List<Map<String, Object>> entities) {
+        List<byte[]> result = new ArrayList<>();
+        int pageCount = Math.max(1, (entities.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        for (int page = 1; page <= pageCount; page++) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("count", entities.size());
+            body.put("next", page < pageCount ? baseUrl + "/" + kind + "/?page=" + (page + 1) : null);
+            body.put("previous", page > 1 ? baseUrl + "/" + kind + "/?page=" + (page - 1) : null);
+            body.put("results", entities.subList((page - 1) * PAGE_SIZE, Math.min(page * PAGE_SIZE, entities.size())));
+            try {
+                result.add(mapper.writeValueAsBytes(body));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> people(String baseUrl, int count, int planets) {
+        List<Map<String, Object>> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> person = new LinkedHashMap<>();
+            person.put("name", FIRST[i % FIRST.length] + " " + LAST[(i / FIRST.length) % LAST.length] + " " + i);
+            person.put("height", String.valueOf(150 + i % 60));
+            person.put("mass", String.valueOf(50 + i % 70));
+            person.put("hair_color", "brown");
+            person.put("skin_color", "fair");
+            person.put("eye_color", "blue");
+            person.put("birth_year", (19 + i % 80) + "BBY");
+            person.put("gender", i % 2 == 0 ? "male" : "female");
+            person.put("homeworld", baseUrl + "/planets/" + (1 + i % Math.max(1, planets)) + "/");
+            person.put("films", List.of(baseUrl + "/films/1/", baseUrl + "/films/" + (2 + i % 5) + "/"));
+            person.put("species", List.of());
+            person.put("vehicles", List.of());
+            person.put("starships", List.of());
+            person.put("created", created(i));
+            person.put("edited", created(i));
+            person.put("url", baseUrl + "/people/" + (i + 1) + "/");
+            people.add(person);
+        }
+        return people;
+    }
+
+    private static List<Map<String, Object>> planets(String baseUrl, int count, int people) {
+        List<Map<String, Object>> planets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> planet = new LinkedHashMap<>();
+            planet.put("name", WORLDS[i % WORLDS.length] + " " + i);
+            planet.put("rotation_period", String.valueOf(20 + i % 10));
+            planet.put("orbital_period", String.valueOf(300 + i % 100));
+            planet.put("diameter", String.valueOf(7000 + 10 * i));
+            planet.put("climate", i % 2 == 0 ? "arid" : "temperate");
+            planet.put("gravity", "1 standard");
+            planet.put("terrain", "desert");
+            planet.put("surface_water", "1");
+            planet.put("population", String.valueOf(1000L * (i + 1)));
+            planet.put("residents", List.of(baseUrl + "/people/" + (1 + i % Math.max(1, people)) + "/"));
+            planet.put("films", List.of(baseUrl + "/films/1/"));
+            planet.put("created", created(i));
+            planet.put("edited", created(i));
+            planet.put("url", baseUrl + "/planets/" + (i + 1) + "/");
+            planets.add(planet);
+        }
+        return planets;
+    }
+
+    private static String created(int i) {
+        return OffsetDateTime.of(2014, 12, 9, 13, 50, 51, 0, ZoneOffset.UTC).plusMinutes(37L * i).toString();
+    }
+
+    /**
+     * Dataset and fault-injection settings, read from {@code loadtest.*} system properties.
+     */
+    public static class Config {
+        int port;
+        int people = 82;
+        int planets = 60;
+        Duration latency = Duration.ofMillis(50);
+        Duration jitter = Duration.ofMillis(25);
+        double errorRate;
+
+        public static Config fromSystemProperties() {
+            Config config = new Config();
+            config.port = Integer.getInteger("loadtest.upstream.port", 0);
+            config.people = Integer.getInteger("loadtest.upstream.people", config.people);
+            config.planets = Integer.getInteger("loadtest.upstream.planets", config.planets);
+            config.latency = Duration.ofMillis(Long.getLong("loadtest.upstream.latency-ms", config.latency.toMillis()));
+            config.jitter = Duration.ofMillis(Long.getLong("loadtest.upstream.jitter-ms", config.jitter.toMillis()));
+            config.errorRate = Double.parseDouble(System.getProperty("loadtest.upstream.error-rate", "0"));
+            return config;
+        }
+
+        @Override
+        public String toString() {
+            return "people=" + people + ", planets=" + planets + ", latency=" + latency.toMillis() + "ms"
+                    + ", jitter=" + jitter.toMillis() + "ms, errorRate=" + errorRate;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Config config = Config.fromSystemProperties();
+        if (config.port == 0) {
+            config.port = 8099;
+        }
+        StandInSwapiServer server = new StandInSwapiServer(config).start();
+        System.out.println("Stand-in SWAPI listening on " + server.baseUrl() + " (" + config + ")");
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.swapi.metrics;
+
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.SortKey;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class PipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(registry);
+
+    @Test
+    void testRecordsStageTaggedByTypeAndSortKey() {
+        assertEquals("ok", metrics.record(PipelineMetrics.SORT, EntityType.PEOPLE, SortKey.created, () -> "ok"));
+
+        Timer timer = registry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "sort", "type", "people", "sort", "created")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void testReusesTimerForSameTags() {
+        metrics.record(PipelineMetrics.FILTER, EntityType.PEOPLE, SortKey.name, 10);
+        metrics.record(PipelineMetrics.FILTER, EntityType.PEOPLE, SortKey.name, 20);
+        metrics.record(PipelineMetrics.FILTER, EntityType.PLANETS, SortKey.name, 30);
+
+        assertEquals(2, registry.find(PipelineMetrics.STAGE_TIMER).tags("stage", "filter").timers().size());
+        assertEquals(2, registry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "filter", "type", "people", "sort", "name").timer().count());
+    }
+
+    @Test
+    void testTimesMonoWithoutSortKey() {
+        StepVerifier.create(metrics.time(PipelineMetrics.FETCH, EntityType.PLANETS, null, Mono.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(metrics.time(PipelineMetrics.FETCH, EntityType.PLANETS, null, Mono.error(new IllegalStateException())))
+                .verifyError(IllegalStateException.class);
+
+        Timer timer = registry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "fetch", "type", "planets", "sort", "none")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+}
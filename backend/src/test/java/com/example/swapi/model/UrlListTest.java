@@ -0,0 +1,74 @@
+package com.example.swapi.model;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class UrlListTest {
+
+    private static final String FILM = "https://swapi.dev/api/films/1/";
+    private static final String HOMEWORLD = "https://swapi.dev/api/planets/1/";
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testEntitiesOfSnapshotShareEncodedUrls() {
+        Person decodedLuke = new Person();
+        Person decodedLeia = new Person();
+        decodedLuke.setFilms(List.of(new String(FILM), "https://swapi.dev/api/films/2/"));
+        decodedLeia.setFilms(List.of(new String(FILM)));
+        decodedLuke.setHomeworld(new String(HOMEWORLD));
+        decodedLeia.setHomeworld(new String(HOMEWORLD));
+
+        EntitySnapshot<Person> snapshot = new EntitySnapshot<>(EntityType.PEOPLE, List.of(decodedLuke, decodedLeia), 1, Instant.now());
+        Person luke = snapshot.getEntities().get(0);
+        Person leia = snapshot.getEntities().get(1);
+
+        assertInstanceOf(UrlList.class, luke.getFilms());
+        assertEquals(List.of(FILM, "https://swapi.dev/api/films/2/"), luke.getFilms());
+        assertSame(luke.getFilms().get(0), leia.getFilms().get(0));
+        assertSame(luke.getHomeworld(), leia.getHomeworld());
+        assertEquals(3, snapshot.getUrls().size());
+        // the decoded entities may still be read elsewhere, so they are left as they were
+        assertFalse(decodedLuke.getFilms() instanceof UrlList);
+        assertEquals(decodedLuke.getFilms(), luke.getFilms());
+    }
+
+    @Test
+    void testEachSnapshotOwnsItsDictionary() {
+        Person luke = new Person();
+        luke.setFilms(List.of(FILM));
+        EntitySnapshot<Person> first = new EntitySnapshot<>(EntityType.PEOPLE, List.of(luke), 1, Instant.now());
+        Person leia = new Person();
+        leia.setFilms(List.of("https://swapi.dev/api/films/6/", FILM));
+        EntitySnapshot<Person> second = new EntitySnapshot<>(EntityType.PEOPLE, List.of(luke, leia), 2, Instant.now());
+
+        assertEquals(1, first.getUrls().size());
+        assertEquals(2, second.getUrls().size());
+        assertEquals(List.of(FILM), first.getEntities().get(0).getFilms());
+        assertSame(second.getEntities().get(0).getFilms().get(0), second.getEntities().get(1).getFilms().get(1));
+    }
+
+    @Test
+    void testJsonShapeIsUnchanged() throws Exception {
+        String json = "{\"name\":\"Tatooine\",\"residents\":[],\"films\":[\"https://swapi.dev/api/films/1/\"]}";
+
+        Planet planet = mapper.readValue(json, Planet.class).withEncodedUrls(new UrlDictionary());
+        JsonNode written = mapper.readTree(mapper.writeValueAsString(planet));
+
+        assertInstanceOf(UrlList.class, planet.getFilms());
+        assertEquals(mapper.readTree(json).get("films"), written.get("films"));
+        assertEquals(0, written.get("residents").size());
+        assertNull(new UrlDictionary().encode(null));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.swapi.query;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryEngineTest {
+
+    private final QueryEngine engine = new QueryEngine(new PipelineMetrics(new SimpleMeterRegistry()), 2);
+
+    private final EntitySnapshot<Person> snapshot = new EntitySnapshot<>(EntityType.PEOPLE, Stream.of(
+                    "Luke Skywalker", "Darth Vader", "Leia Organa", "Anakin Skywalker", "Owen Lars", "Shmi Skywalker")
+            .map(QueryEngineTest::person)
+            .collect(Collectors.toList()), 1, Instant.now());
+
+    @Test
+    void testReusesPlansPerQueryShape() {
+        QueryPlan plan = engine.plan(EntityType.PEOPLE, "sky", SortKey.name, SortDirection.asc);
+
+        assertSame(plan, engine.plan(EntityType.PEOPLE, "sky", SortKey.name, SortDirection.asc));
+        assertNotSame(plan, engine.plan(EntityType.PEOPLE, "sky", SortKey.name, SortDirection.desc));
+        assertNotSame(plan, engine.plan(EntityType.PLANETS, "sky", SortKey.name, SortDirection.asc));
+        // the third shape went over the limit and started a fresh cache
+        assertEquals(1, engine.stats().get("plans"));
+    }
+
+    @Test
+    void testPagesThroughSearchResultsWithSharedMatches() {
+        QueryPlan plan = engine.plan(EntityType.PEOPLE, "SKYWALKER", SortKey.name, SortDirection.desc);
+
+        PageResponse<Person> first = engine.page(snapshot, plan, 1, 2);
+        PageResponse<Person> second = engine.page(snapshot, plan, 2, 2);
+        PageResponse<Person> again = engine.page(snapshot, plan, 1, 2);
+
+        assertEquals(List.of("Shmi Skywalker", "Luke Skywalker"), names(first));
+        assertEquals(List.of("Anakin Skywalker"), names(second));
+        assertEquals(names(first), names(again));
+        assertEquals(3, second.getTotalElements());
+        assertEquals(2, second.getTotalPages());
+        assertEquals("SKYWALKER", second.getSearch());
+    }
+
+    @Test
+    void testFilterAgreesWithTheSearchIndex() {
+        QueryPlan plan = engine.plan(EntityType.PEOPLE, "Lars", SortKey.name, SortDirection.asc);
+
+        List<Person> matching = engine.matching(snapshot, plan).collect(Collectors.toList());
+
+        assertEquals(List.of("Owen Lars"), matching.stream().map(Person::getName).collect(Collectors.toList()));
+        assertTrue(plan.getFilter().test(person("Cliegg LARS")));
+        assertFalse(plan.getFilter().test(person(null)));
+    }
+
+    @Test
+    void testCursorsWalkEveryPageInBothDirections() {
+        EntitySnapshot<Person> many = snapshot(1, 40, -1);
+        for (String search : new String[] {"", "7"}) {
+            for (SortKey key : SortKey.values()) {
+                for (SortDirection direction : SortDirection.values()) {
+                    QueryPlan plan = engine.plan(EntityType.PEOPLE, search, key, direction);
+                    List<String> offset = new ArrayList<>();
+                    for (int page = 1; page <= engine.page(many, plan, 1, 3).getTotalPages(); page++) {
+                        offset.addAll(names(engine.page(many, plan, page, 3)));
+                    }
+
+                    List<List<String>> forward = new ArrayList<>();
+                    PageResponse<Person> response = engine.page(many, plan, 1, 3);
+                    forward.add(names(response));
+                    while (response.getNextCursor() != null) {
+                        response = engine.page(many, plan, Cursor.decode(response.getNextCursor()), 3);
+                        forward.add(names(response));
+                    }
+                    List<List<String>> backward = new ArrayList<>();
+                    backward.add(names(response));
+                    while (response.getPrevCursor() != null) {
+                        response = engine.page(many, plan, Cursor.decode(response.getPrevCursor()), 3);
+                        backward.add(0, names(response));
+                    }
+
+                    String shape = search + " " + key + " " + direction;
+                    assertEquals(offset, forward.stream().flatMap(List::stream).collect(Collectors.toList()), shape);
+                    assertEquals(forward, backward, shape);
+                    assertEquals(1, response.getPage(), shape);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCursorSurvivesASnapshotRefresh() {
+        QueryPlan plan = engine.plan(EntityType.PEOPLE, "", SortKey.name, SortDirection.asc);
+        PageResponse<Person> first = engine.page(snapshot(1, 10, -1), plan, 1, 3);
+        // the refresh adds a row sorting before the page boundary and drops the first one
+        EntitySnapshot<Person> refreshed = snapshot(2, 10, 0);
+
+        PageResponse<Person> next = engine.page(refreshed, plan, Cursor.decode(first.getNextCursor()), 3);
+
+        assertEquals(List.of("Person 00", "Person 01", "Person 02"), names(first));
+        assertEquals(List.of("Person 03", "Person 04", "Person 05"), names(next));
+    }
+
+    @Test
+    void testCursorPositionIsCheckedAgainstItsRow() {
+        QueryPlan plan = engine.plan(EntityType.PEOPLE, "", SortKey.name, SortDirection.asc);
+        EntitySnapshot<Person> issued = snapshot(1, 10, -1);
+        PageResponse<Person> first = engine.page(withContentHash(issued, 42), plan, 1, 3);
+        // same version and hash, as from a restarted process, but the first two rows are gone
+        EntitySnapshot<Person> served = withContentHash(new EntitySnapshot<>(EntityType.PEOPLE,
+                issued.getEntities().subList(2, 10), 1, Instant.now()), 42);
+
+        PageResponse<Person> next = engine.page(served, plan, Cursor.decode(first.getNextCursor()), 3);
+
+        assertEquals(List.of("Person 03", "Person 04", "Person 05"), names(next));
+    }
+
+    @Test
+    void testRejectsForeignCursors() {
+        QueryPlan asc = engine.plan(EntityType.PEOPLE, "", SortKey.name, SortDirection.asc);
+        QueryPlan desc = engine.plan(EntityType.PEOPLE, "", SortKey.name, SortDirection.desc);
+        Cursor cursor = Cursor.decode(engine.page(snapshot, asc, 1, 2).getNextCursor());
+
+        assertThrows(Cursor.InvalidException.class, () -> engine.page(snapshot, desc, cursor, 2));
+        assertThrows(Cursor.InvalidException.class, () -> Cursor.decode("not-a-cursor"));
+    }
+
+    private static EntitySnapshot<Person> snapshot(long version, int size, int dropped) {
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (i == dropped) {
+                continue;
+            }
+            Person person = person(String.format("Person %02d", i));
+            person.setUrl("https://swapi.dev/api/people/" + i + "/");
+            person.setCreated(OffsetDateTime.of(2014, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusHours(size - i));
+            people.add(person);
+        }
+        if (dropped >= 0) {
+            Person inserted = person("Person 01a");
+            inserted.setUrl("https://swapi.dev/api/people/99/");
+            people.add(inserted);
+        }
+        return new EntitySnapshot<>(EntityType.PEOPLE, people, version, Instant.now());
+    }
+
+    private static EntitySnapshot<Person> withContentHash(EntitySnapshot<Person> snapshot, long contentHash) {
+        return new EntitySnapshot<>(snapshot.getType(), snapshot.getEntities(), snapshot.getVersion(), contentHash,
+                snapshot.getLoadedAt(), false);
+    }
+
+    private static List<String> names(PageResponse<Person> response) {
+        return response.getContent().stream().map(Person::getName).collect(Collectors.toList());
+    }
+
+    private static Person person(String name) {
+        Person person = new Person();
+        person.setName(name);
+        return person;
+    }
+}
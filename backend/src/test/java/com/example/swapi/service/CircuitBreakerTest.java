@@ -0,0 +1,92 @@
+package com.example.swapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 2, Duration.ofSeconds(30), clock);
+
+    @Test
+    void testOpensAfterConsecutiveFailuresAndRejectsWithoutCalling() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("boom"));
+        });
+
+        StepVerifier.create(breaker.protect(failing)).verifyError(IllegalStateException.class);
+        StepVerifier.create(breaker.protect(failing)).verifyError(IllegalStateException.class);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        StepVerifier.create(breaker.protect(failing)).verifyError(CircuitBreaker.OpenException.class);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testClosesAfterSuccessfulTrial() {
+        Mono<String> failing = Mono.error(new IllegalStateException("boom"));
+        breaker.protect(failing).onErrorResume(e -> Mono.empty()).block();
+        breaker.protect(failing).onErrorResume(e -> Mono.empty()).block();
+
+        clock.advance(Duration.ofSeconds(31));
+        StepVerifier.create(breaker.protect(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testFailedTrialReopens() {
+        Mono<String> failing = Mono.error(new IllegalStateException("boom"));
+        breaker.protect(failing).onErrorResume(e -> Mono.empty()).block();
+        breaker.protect(failing).onErrorResume(e -> Mono.empty()).block();
+
+        clock.advance(Duration.ofSeconds(31));
+        StepVerifier.create(breaker.protect(failing)).verifyError(IllegalStateException.class);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.stats().get("opened"));
+    }
+
+    @Test
+    void testClientErrorsDoNotCount() {
+        Mono<String> notFound = Mono.error(WebClientResponseException.create(
+                HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+        breaker.protect(notFound).onErrorResume(e -> Mono.empty()).block();
+        breaker.protect(notFound).onErrorResume(e -> Mono.empty()).block();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() { return instant; }
+    }
+}
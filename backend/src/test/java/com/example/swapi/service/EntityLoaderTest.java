@@ -0,0 +1,81 @@
+package com.example.swapi.service;
+
+import com.example.swapi.dto.SwapiPage;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityLoaderTest {
+
+    @Mock
+    private SwapiClient swapiClient;
+
+    @Test
+    void testFansOutRemainingPagesAndKeepsOrder() {
+        stubPage(1, 25, 0, 10, true, Duration.ZERO);
+        // page 2 is slower than page 3, results must still come back in page order
+        stubPage(2, 25, 10, 10, true, Duration.ofMillis(100));
+        stubPage(3, 25, 20, 5, false, Duration.ZERO);
+
+        EntityLoader loader = new EntityLoader(swapiClient, 4);
+
+        StepVerifier.create(loader.<Person>loadAll(EntityType.PEOPLE))
+                .expectNextMatches(people -> people.stream().map(Person::getName).collect(Collectors.toList())
+                        .equals(names(0, 25)))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFollowsNextLinksWhenCountIsShort() {
+        stubPage(1, 15, 0, 10, true, Duration.ZERO);
+        stubPage(2, 15, 10, 10, true, Duration.ZERO);
+        stubPage(3, 15, 20, 3, false, Duration.ZERO);
+
+        EntityLoader loader = new EntityLoader(swapiClient, 2);
+
+        StepVerifier.create(loader.<Person>loadAll(EntityType.PEOPLE))
+                .expectNextMatches(people -> people.size() == 23)
+                .verifyComplete();
+    }
+
+    @Test
+    void testSinglePage() {
+        stubPage(1, 3, 0, 3, false, Duration.ZERO);
+
+        EntityLoader loader = new EntityLoader(swapiClient, 4);
+
+        StepVerifier.create(loader.<Person>loadAll(EntityType.PEOPLE))
+                .expectNextMatches(people -> people.size() == 3)
+                .verifyComplete();
+    }
+
+    private void stubPage(int page, int count, int offset, int results, boolean hasNext, Duration delay) {
+        SwapiPage<Person> swapiPage = new SwapiPage<>();
+        swapiPage.setCount(count);
+        swapiPage.setNext(hasNext ? "https://swapi.dev/api/people/?page=" + (page + 1) : null);
+        swapiPage.setResults(names(offset, offset + results).stream().map(name -> {
+            Person person = new Person();
+            person.setName(name);
+            return person;
+        }).collect(Collectors.toList()));
+
+        doReturn(Mono.just(swapiPage).delayElement(delay)).when(swapiClient).fetchPage(EntityType.PEOPLE, page);
+    }
+
+    private static List<String> names(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "Person " + i).collect(Collectors.toList());
+    }
+}
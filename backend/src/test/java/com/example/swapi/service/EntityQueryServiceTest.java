@@ -0,0 +1,123 @@
+package com.example.swapi.service;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.cache.SnapshotFileStore;
+import com.example.swapi.dto.BatchQuery;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import com.example.swapi.query.QueryEngine;
+import com.example.swapi.sort.SortDirection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EntityQueryServiceTest {
+
+    private final SnapshotCache snapshotCache = new SnapshotCache(null, SnapshotFileStore.disabled(),
+            Duration.ofDays(1), Duration.ofDays(1), Duration.ofSeconds(1));
+    private final PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private final EntityQueryService service = new EntityQueryService(snapshotCache, new PageResponseCache(0, 0),
+            null, new QueryEngine(metrics, 16), metrics);
+
+    private final Context pinned = SnapshotCache.pin(SnapshotCache.pin(Context.empty(),
+                    new EntitySnapshot<>(EntityType.PEOPLE, List.of(person("Luke"), person("Leia"), person("Han")), 1, Instant.now())),
+            new EntitySnapshot<>(EntityType.PLANETS, List.of(planet("Hoth"), planet("Endor")), 1, Instant.now()));
+
+    @AfterEach
+    void tearDown() {
+        snapshotCache.shutdown();
+    }
+
+    @Test
+    void testBatchAnswersEveryQueryInOrderAndSharesIdenticalPages() {
+        BatchQuery names = query("people", 2);
+        names.setFields("name");
+        BatchQuery planets = query("planets", 5);
+        planets.setDir(SortDirection.asc);
+        BatchQuery full = query("people", 2);
+
+        StepVerifier.create(service.batch(List.of(names, planets, full), () -> { }).contextWrite(pinned))
+                .assertNext(results -> {
+                    assertEquals(List.of("Luke", "Leia"), names(results.get(0)));
+                    assertEquals(List.of("Endor", "Hoth"), names(results.get(1)));
+                    assertEquals(List.of("Luke", "Leia"), names(results.get(2)));
+                    // computed once, projected separately
+                    assertSame(results.get(0).getContent(), results.get(2).getContent());
+                    assertEquals(List.of("name"), List.copyOf(results.get(0).getFields().getNames()));
+                    assertNull(results.get(2).getFields());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testBatchSharesPagesAcrossSpellingsOfType() {
+        StepVerifier.create(service.batch(List.of(query("people", 2), query(" PEOPLE", 2)), () -> { }).contextWrite(pinned))
+                .assertNext(results -> assertSame(results.get(0).getContent(), results.get(1).getContent()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testBatchReportsStaleSnapshots() {
+        Context stalePlanets = SnapshotCache.pin(pinned, new EntitySnapshot<>(EntityType.PLANETS,
+                List.of(planet("Hoth")), 2, Instant.now().minus(Duration.ofDays(2))));
+        AtomicInteger reported = new AtomicInteger();
+
+        service.batch(List.of(query("people", 2)), reported::incrementAndGet).contextWrite(stalePlanets).block();
+        assertEquals(0, reported.get());
+
+        service.batch(List.of(query("people", 2), query("planets", 2)), reported::incrementAndGet)
+                .contextWrite(stalePlanets).block();
+        assertEquals(1, reported.get());
+    }
+
+    @Test
+    void testBatchRejectsUnknownTypes() {
+        StepVerifier.create(service.batch(List.of(query("starships", 1)), () -> { }).contextWrite(pinned))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    private static BatchQuery query(String type, int size) {
+        BatchQuery query = new BatchQuery();
+        query.setType(type);
+        query.setSize(size);
+        return query;
+    }
+
+    private static List<String> names(PageResponse<?> response) {
+        return response.getContent().stream()
+                .map(entity -> ((BaseEntity) entity).getName())
+                .collect(Collectors.toList());
+    }
+
+    private static Person person(String name) {
+        Person person = new Person();
+        person.setName(name);
+        return person;
+    }
+
+    private static Planet planet(String name) {
+        Planet planet = new Planet();
+        planet.setName(name);
+        return planet;
+    }
+}
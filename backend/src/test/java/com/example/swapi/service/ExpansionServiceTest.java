@@ -0,0 +1,121 @@
+package com.example.swapi.service;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.cache.SnapshotFileStore;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExpansionServiceTest {
+
+    private static final String TATOOINE = "https://swapi.dev/api/planets/1/";
+    private static final String NABOO = "https://swapi.dev/api/planets/8/";
+
+    private final SnapshotCache snapshotCache = new SnapshotCache(null, SnapshotFileStore.disabled(),
+            Duration.ofDays(1), Duration.ofDays(1), Duration.ofSeconds(1));
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private final Person luke = person("Luke Skywalker", 1, TATOOINE);
+    private final Person owen = person("Owen Lars", 6, TATOOINE);
+    private final Person padme = person("Padme Amidala", 35, NABOO);
+    private final Planet tatooine = planet("Tatooine", TATOOINE, luke, owen);
+
+    private final Context pinned = SnapshotCache.pin(SnapshotCache.pin(Context.empty(),
+                    new EntitySnapshot<>(EntityType.PEOPLE, List.of(luke, owen, padme), 1, Instant.now())),
+            new EntitySnapshot<>(EntityType.PLANETS, List.of(tatooine), 1, Instant.now()));
+
+    @AfterEach
+    void tearDown() {
+        snapshotCache.shutdown();
+    }
+
+    @Test
+    void testInlinesReferencesFromTheCachedSnapshots() throws Exception {
+        ExpansionService service = new ExpansionService(snapshotCache, 2, 200, 1000);
+
+        JsonNode people = expand(service, List.of(luke, padme), "homeworld.residents");
+
+        JsonNode homeworld = people.get(0).get("homeworld");
+        assertEquals("Tatooine", homeworld.get("name").asText());
+        assertEquals("Owen Lars", homeworld.get("residents").get(1).get("name").asText());
+        // the residents' own homeworlds are a level deeper than requested
+        assertEquals(TATOOINE, homeworld.get("residents").get(1).get("homeworld").asText());
+        // Naboo is not cached, so it stays a URL
+        assertEquals(NABOO, people.get(1).get("homeworld").asText());
+    }
+
+    @Test
+    void testStopsInliningAtTheSizeGuard() throws Exception {
+        ExpansionService service = new ExpansionService(snapshotCache, 2, 1, 1000);
+
+        JsonNode people = expand(service, List.of(luke), "homeworld.residents");
+
+        JsonNode homeworld = people.get(0).get("homeworld");
+        assertEquals("Tatooine", homeworld.get("name").asText());
+        assertTrue(homeworld.get("residents").get(0).isTextual());
+    }
+
+    @Test
+    void testRejectsPagesThatInlineTooManyOccurrences() throws Exception {
+        // two homeworlds plus their two residents each: Tatooine is one distinct entity but written twice
+        ExpansionService limited = new ExpansionService(snapshotCache, 2, 200, 5);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> expand(limited, List.of(luke, owen), "homeworld.residents"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+
+        ExpansionService enough = new ExpansionService(snapshotCache, 2, 200, 6);
+        JsonNode people = expand(enough, List.of(luke, owen), "homeworld.residents");
+        assertEquals("Owen Lars", people.get(1).get("homeworld").get("residents").get(1).get("name").asText());
+    }
+
+    @Test
+    void testRejectsUnknownAndTooDeepRelations() {
+        ExpansionService service = new ExpansionService(snapshotCache, 2, 200, 1000);
+
+        assertNull(service.parse(" "));
+        assertThrows(ResponseStatusException.class, () -> service.parse("films"));
+        assertThrows(ResponseStatusException.class, () -> service.parse("homeworld.residents.homeworld"));
+    }
+
+    private JsonNode expand(ExpansionService service, List<Person> content, String expand) throws Exception {
+        PageResponse<Person> page = new PageResponse<>(content, 1, 15, content.size(), 1, "name", "asc", "");
+        PageResponse<Person> expanded = service.expand(page, service.parse(expand)).contextWrite(pinned).block();
+        return mapper.readTree(mapper.writeValueAsString(expanded)).get("content");
+    }
+
+    private static Person person(String name, int id, String homeworld) {
+        Person person = new Person();
+        person.setName(name);
+        person.setUrl("https://swapi.dev/api/people/" + id + "/");
+        person.setHomeworld(homeworld);
+        return person;
+    }
+
+    private static Planet planet(String name, String url, Person... residents) {
+        Planet planet = new Planet();
+        planet.setName(name);
+        planet.setUrl(url);
+        planet.setResidents(Arrays.stream(residents).map(Person::getUrl).collect(Collectors.toList()));
+        return planet;
+    }
+}
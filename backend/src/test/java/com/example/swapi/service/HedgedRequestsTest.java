@@ -0,0 +1,115 @@
+package com.example.swapi.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedRequestsTest {
+
+    @Test
+    void testDoesNotHedgeWithoutLatencySamples() {
+        HedgedRequests hedging = new HedgedRequests(true, 0.9, Duration.ofMillis(20), 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(hedging.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(100)).thenReturn("slow");
+                }))
+                .expectNext("slow")
+                .verifyComplete();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testSlowPrimaryIsHedgedAndFirstAnswerWins() {
+        HedgedRequests hedging = warmedUp(1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(hedging.execute(() -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(5)).thenReturn("slow")
+                        : Mono.just("hedge")))
+                .expectNext("hedge")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        assertEquals(1L, hedging.stats().get("hedged"));
+        assertEquals(1L, hedging.stats().get("hedgeWins"));
+    }
+
+    @Test
+    void testHedgeRateIsCapped() {
+        HedgedRequests hedging = warmedUp(0.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(hedging.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(100)).thenReturn("slow");
+                }))
+                .expectNext("slow")
+                .verifyComplete();
+        assertEquals(1, attempts.get());
+        assertEquals(1L, hedging.stats().get("suppressed"));
+    }
+
+    @Test
+    void testPrimaryErrorIsNotHedged() {
+        HedgedRequests hedging = warmedUp(1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(hedging.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.<String>error(new IllegalStateException("boom"));
+                }))
+                .verifyError(IllegalStateException.class);
+        assertEquals(1, attempts.get());
+        assertEquals(0L, hedging.stats().get("hedged"));
+    }
+
+    @Test
+    void testPrimaryErrorIsNotHeldBackByHedgeDelay() {
+        HedgedRequests hedging = warmedUp(1.0, Duration.ofSeconds(5));
+
+        Duration took = StepVerifier.create(hedging.execute(() -> Mono.<String>error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(2));
+        assertTrue(took.compareTo(Duration.ofSeconds(1)) < 0, "took " + took);
+        assertEquals(0L, hedging.stats().get("hedged"));
+    }
+
+    @Test
+    void testHedgeDelayIsRecomputedPeriodically() {
+        HedgedRequests hedging = warmedUp(0.0, Duration.ofNanos(1));
+        assertEquals(0L, hedging.stats().get("hedgeDelayMillis"));
+
+        slowRequests(hedging, 15);
+        // the delay published after the warm-up is still served
+        assertEquals(0L, hedging.stats().get("hedgeDelayMillis"));
+
+        slowRequests(hedging, 1);
+        assertTrue((Long) hedging.stats().get("hedgeDelayMillis") >= 50, "delay " + hedging.stats().get("hedgeDelayMillis"));
+    }
+
+    private static void slowRequests(HedgedRequests hedging, int count) {
+        Flux.range(0, count)
+                .flatMap(i -> hedging.execute(() -> Mono.delay(Duration.ofMillis(50)).thenReturn(i)))
+                .blockLast();
+    }
+
+    private static HedgedRequests warmedUp(double maxRate) {
+        return warmedUp(maxRate, Duration.ofMillis(20));
+    }
+
+    private static HedgedRequests warmedUp(double maxRate, Duration minDelay) {
+        HedgedRequests hedging = new HedgedRequests(true, 0.9, minDelay, maxRate);
+        for (int i = 0; i < 20; i++) {
+            hedging.execute(() -> Mono.just("fast")).block();
+        }
+        return hedging;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.swapi.web;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.cache.SnapshotFileStore;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import com.example.swapi.service.EntityLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ConditionalGetWebFilterTest {
+
+    @Mock
+    private SnapshotCache snapshotCache;
+
+    private ConditionalGetWebFilter filter;
+    private final AtomicInteger handled = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> {
+        handled.incrementAndGet();
+        return exchange.getResponse().setComplete();
+    };
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConditionalGetWebFilter(snapshotCache);
+        lenient().when(snapshotCache.getAll(any())).thenCallRealMethod();
+    }
+
+    @Test
+    void testReturnsNotModifiedWhenETagMatches() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE)).thenReturn(Mono.just(snapshot(3)));
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/people?page=2&size=10"));
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        // same query with parameters in a different order
+        MockServerWebExchange second = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/people?size=10&page=2").ifNoneMatch(etag));
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void testAcceptsETagOfGzipVariant() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE)).thenReturn(Mono.just(snapshot(3)));
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/people"));
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        String gzipEtag = ConditionalGetWebFilter.gzipVariant(first.getResponse().getHeaders().getETag());
+
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/people")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").ifNoneMatch(gzipEtag));
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+        assertEquals(gzipEtag, second.getResponse().getHeaders().getETag());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void testTagsGzipBodyWithGzipVariant() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE)).thenReturn(Mono.just(snapshot(3)));
+
+        MockServerWebExchange identity = MockServerWebExchange.from(MockServerHttpRequest.get("/people"));
+        StepVerifier.create(filter.filter(identity, chain)).verifyComplete();
+        MockServerWebExchange gzip = MockServerWebExchange.from(MockServerHttpRequest.get("/people")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        StepVerifier.create(filter.filter(gzip, exchange -> {
+            exchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return exchange.getResponse().setComplete();
+        })).verifyComplete();
+
+        assertEquals(ConditionalGetWebFilter.gzipVariant(identity.getResponse().getHeaders().getETag()),
+                gzip.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void testErrorResponsesCarryNoETag() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE)).thenReturn(Mono.just(snapshot(3)));
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/people?sort=height"));
+        StepVerifier.create(filter.filter(exchange, failing -> {
+            failing.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return failing.getResponse().setComplete();
+        })).verifyComplete();
+
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        assertNull(exchange.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void testNewSnapshotContentChangesETag() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE))
+                .thenReturn(Mono.just(snapshot(3)))
+                .thenReturn(Mono.just(snapshot(4, "Luke Skywalker")));
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/people"));
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/people").ifNoneMatch(etag));
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertNotEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+        assertNotEquals(etag, second.getResponse().getHeaders().getETag());
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void testExpandedETagFollowsContentOfInlinedSnapshot() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE)).thenReturn(Mono.just(snapshot(3)));
+        when(snapshotCache.<Planet>get(EntityType.PLANETS))
+                .thenReturn(Mono.just(planets(5)))
+                .thenReturn(Mono.just(planets(5)))
+                .thenReturn(Mono.just(planets(6, "Tatooine")));
+
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/people?expand=homeworld"));
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange second = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/people?expand=homeworld").ifNoneMatch(etag));
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+
+        MockServerWebExchange third = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/people?expand=homeworld").ifNoneMatch(etag));
+        StepVerifier.create(filter.filter(third, chain)).verifyComplete();
+        assertNotEquals(HttpStatus.NOT_MODIFIED, third.getResponse().getStatusCode());
+        assertNotEquals(etag, third.getResponse().getHeaders().getETag());
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void testETagsOfSeparateInstancesOnlyMatchForIdenticalContent() {
+        // every instance numbers its snapshots from 1, like a restarted process or another replica
+        String etag = etagServedBy(List.of(person("Luke Skywalker")));
+
+        assertEquals(etag, etagServedBy(List.of(person("Luke Skywalker"))));
+        assertNotEquals(etag, etagServedBy(List.of(person("Leia Organa"))));
+    }
+
+    @Test
+    void testIgnoresOtherEndpoints() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/health"));
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertNull(exchange.getResponse().getHeaders().getETag());
+        assertEquals(1, handled.get());
+    }
+
+    private String etagServedBy(List<Person> people) {
+        EntityLoader loader = mock(EntityLoader.class);
+        when(loader.<Person>loadAll(EntityType.PEOPLE)).thenReturn(Mono.just(people));
+        SnapshotCache cache = new SnapshotCache(loader, SnapshotFileStore.disabled(),
+                Duration.ofMinutes(10), Duration.ofMinutes(5), Duration.ofSeconds(1));
+        try {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/people?page=1"));
+            StepVerifier.create(new ConditionalGetWebFilter(cache).filter(exchange, chain)).verifyComplete();
+            return exchange.getResponse().getHeaders().getETag();
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    private static EntitySnapshot<Person> snapshot(long version, String... names) {
+        return new EntitySnapshot<>(EntityType.PEOPLE,
+                Arrays.stream(names).map(ConditionalGetWebFilterTest::person).collect(Collectors.toList()),
+                version, Instant.now());
+    }
+
+    private static EntitySnapshot<Planet> planets(long version, String... names) {
+        return new EntitySnapshot<>(EntityType.PLANETS, Arrays.stream(names).map(name -> {
+            Planet planet = new Planet();
+            planet.setName(name);
+            return planet;
+        }).collect(Collectors.toList()), version, Instant.now());
+    }
+
+    private static Person person(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setUrl("https://swapi.dev/api/people/" + Math.abs(name.hashCode()) + "/");
+        return person;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.swapi.web;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.SerializedPageCache;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SerializedPageWebFilterTest {
+
+    private static final String BODY = "{\"content\":[{\"name\":\"Tatooine\"}],\"page\":1}";
+
+    @Mock
+    private SnapshotCache snapshotCache;
+
+    private SerializedPageWebFilter filter;
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private final WebFilterChain chain = exchange -> {
+        handled.incrementAndGet();
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return exchange.getResponse().writeWith(Mono.just(
+                exchange.getResponse().bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+    };
+
+    @BeforeEach
+    void setUp() {
+        SerializedPageCache pageCache = new SerializedPageCache(10, 1 << 20, 16, Schedulers.immediate());
+        filter = new SerializedPageWebFilter(snapshotCache, pageCache, new PipelineMetrics(new SimpleMeterRegistry()));
+        when(snapshotCache.<Planet>get(EntityType.PLANETS))
+                .thenReturn(Mono.just(new EntitySnapshot<>(EntityType.PLANETS, List.<Planet>of(), 1, Instant.now())));
+        when(snapshotCache.getAll(any())).thenCallRealMethod();
+    }
+
+    @Test
+    void testServesRepeatRequestsFromSerializedBody() {
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/planets?page=1"));
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/planets?page=1"));
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertEquals(1, handled.get());
+        assertEquals(BODY, second.getResponse().getBodyAsString().block());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    void testServesPrecompressedGzipWhenAccepted() throws IOException {
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/planets")), chain))
+                .verifyComplete();
+
+        MockServerWebExchange gzip = MockServerWebExchange.from(MockServerHttpRequest.get("/planets")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"));
+        StepVerifier.create(filter.filter(gzip, chain)).verifyComplete();
+
+        assertEquals("gzip", gzip.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] compressed = DataBufferUtils.join(gzip.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void testExpandedPagesAreKeyedByContentOfInlinedSnapshot() {
+        when(snapshotCache.<Person>get(EntityType.PEOPLE))
+                .thenReturn(Mono.just(people(1)))
+                .thenReturn(Mono.just(people(1)))
+                .thenReturn(Mono.just(people(2, "Luke Skywalker")));
+
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/planets?expand=residents"));
+            StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+            assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        }
+
+        // the second request reused the first body, the third had different people
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void testRefusedGzipIsNotUsed() {
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/planets")), chain))
+                .verifyComplete();
+
+        MockServerWebExchange identity = MockServerWebExchange.from(MockServerHttpRequest.get("/planets")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"));
+        StepVerifier.create(filter.filter(identity, chain)).verifyComplete();
+
+        assertNull(identity.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, identity.getResponse().getBodyAsString().block());
+    }
+
+    private static EntitySnapshot<Person> people(long version, String... names) {
+        return new EntitySnapshot<>(EntityType.PEOPLE, Arrays.stream(names).map(name -> {
+            Person person = new Person();
+            person.setName(name);
+            return person;
+        }).collect(Collectors.toList()), version, Instant.now());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.swapi.benchmarks;
+
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.sort.CommonSortStrategies;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import com.example.swapi.sort.strategies.CreatedSortStrategy;
+import com.example.swapi.sort.strategies.NameSortStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full sorts of a copied dataset with each comparator implementation, so the comparators can be compared
+ * with each other independently of search and pagination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ComparatorBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"asc", "desc"})
+    public SortDirection direction;
+
+    private List<BaseEntity> dataset;
+    private Comparator<BaseEntity> commonName;
+    private Comparator<BaseEntity> commonCreated;
+    private Comparator<BaseEntity> strategyName;
+    private Comparator<BaseEntity> strategyCreated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = Datasets.entities(EntityType.PEOPLE, entities);
+        CommonSortStrategies<BaseEntity> common = new CommonSortStrategies<>();
+        commonName = common.getComparator(SortKey.name, direction);
+        commonCreated = common.getComparator(SortKey.created, direction);
+        strategyName = new NameSortStrategy<>().getComparator(direction);
+        strategyCreated = new CreatedSortStrategy<>().getComparator(direction);
+    }
+
+    @Benchmark
+    public List<BaseEntity> commonSortStrategiesByName() {
+        return sorted(commonName);
+    }
+
+    @Benchmark
+    public List<BaseEntity> commonSortStrategiesByCreated() {
+        return sorted(commonCreated);
+    }
+
+    @Benchmark
+    public List<BaseEntity> nameSortStrategy() {
+        return sorted(strategyName);
+    }
+
+    @Benchmark
+    public List<BaseEntity> createdSortStrategy() {
+        return sorted(strategyCreated);
+    }
+
+    private List<BaseEntity> sorted(Comparator<BaseEntity> comparator) {
+        List<BaseEntity> copy = new ArrayList<>(dataset);
+        copy.sort(comparator);
+        return copy;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.swapi.benchmarks;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.Person;
+import com.example.swapi.model.Planet;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic datasets shaped like SWAPI data.
+ * <p>
+ * Names are random syllable words, with marker words planted at fixed rates so searches have known hit
+ * rates: {@value #COMMON} appears in half of the names, {@value #RARE} in one percent of them and
+ * {@value #MISSING} in none. Relationship URL lists point into resource sets as small as SWAPI's, and every
+ * URL is a fresh string, as it is after decoding a response.
+ */
+final class Datasets {
+
+    static final String COMMON = "organa";
+    static final String RARE = "skywalker";
+    static final String MISSING = "jarjar";
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "ven", "tar", "mi", "dro", "so", "bel", "qui", "ra", "nu", "the", "zan", "pa", "del", "or"
+    };
+    private static final OffsetDateTime EPOCH = OffsetDateTime.of(2014, 12, 9, 13, 50, 51, 0, ZoneOffset.UTC);
+
+    private Datasets() {
+    }
+
+    static EntitySnapshot<BaseEntity> snapshot(EntityType type, int size) {
+        return new EntitySnapshot<>(type, entities(type, size), 1, Instant.now());
+    }
+
+    static List<BaseEntity> entities(EntityType type, int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<BaseEntity> entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BaseEntity entity = type == EntityType.PEOPLE ? person(i) : planet(i);
+            entity.setName(name(random, i));
+            // spread over ~4 years at second resolution, with a few duplicates so ties get exercised
+            entity.setCreated(EPOCH.plusSeconds(random.nextLong(4L * 365 * 24 * 3600)));
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    static String search(String hitRate) {
+        switch (hitRate) {
+            case "none":
+                return "";
+            case "common":
+                return COMMON;
+            case "rare":
+                return RARE;
+            case "missing":
+                return MISSING;
+            default:
+                throw new IllegalArgumentException("Unknown hit rate: " + hitRate);
+        }
+    }
+
+    private static String name(SplittableRandom random, int i) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int s = 0; s < syllables; s++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        if (i % 2 == 0) {
+            name.append(" Organa");
+        }
+        if (i % 100 == 0) {
+            name.append(" Skywalker");
+        }
+        return name.toString();
+    }
+
+    private static Person person(int i) {
+        Person person = new Person();
+        person.setUrl("https://swapi.dev/api/people/" + (i + 1) + "/");
+        person.setHomeworld("https://swapi.dev/api/planets/" + (1 + i % 60) + "/");
+        person.setGender(i % 3 == 0 ? "female" : "male");
+        person.setBirth_year((19 + i % 80) + "BBY");
+        person.setFilms(urls("films", i, 1 + i % 6, 6));
+        person.setSpecies(urls("species", i, i % 2, 37));
+        person.setVehicles(urls("vehicles", i, i % 3, 39));
+        person.setStarships(urls("starships", i, i % 4, 36));
+        return person;
+    }
+
+    private static Planet planet(int i) {
+        Planet planet = new Planet();
+        planet.setUrl("https://swapi.dev/api/planets/" + (i + 1) + "/");
+        planet.setClimate(i % 2 == 0 ? "arid" : "temperate");
+        planet.setPopulation(String.valueOf(1000L * (i % 5000)));
+        planet.setResidents(urls("people", i, i % 6, 1_000_000));
+        planet.setFilms(urls("films", i, i % 4, 6));
+        return planet;
+    }
+
+    private static List<String> urls(String resource, int i, int count, int resources) {
+        List<String> urls = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            urls.add("https://swapi.dev/api/" + resource + "/" + (1 + (i * 7 + n * 13) % resources) + "/");
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.swapi.benchmarks;
+
+import com.example.swapi.cache.EntitySnapshot;
+import com.example.swapi.cache.PageResponseCache;
+import com.example.swapi.cache.SnapshotCache;
+import com.example.swapi.cache.SnapshotFileStore;
+import com.example.swapi.dto.PageResponse;
+import com.example.swapi.metrics.PipelineMetrics;
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.query.QueryEngine;
+import com.example.swapi.service.EntityQueryService;
+import com.example.swapi.sort.SortDirection;
+import com.example.swapi.sort.SortKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EntityQueryService.getEntities} against a pinned snapshot with the page cache disabled, so every
+ * invocation runs the full filter, sort and paginate kernel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueryServiceBenchmark {
+
+    @Param({"PEOPLE", "PLANETS"})
+    public EntityType type;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"none", "common", "rare", "missing"})
+    public String hitRate;
+
+    @Param({"name", "created"})
+    public SortKey sortKey;
+
+    @Param({"asc", "desc"})
+    public SortDirection direction;
+
+    @Param({"first", "last"})
+    public String depth;
+
+    @Param({"15"})
+    public int pageSize;
+
+    private SnapshotCache snapshotCache;
+    private EntityQueryService service;
+    private Class<BaseEntity> entityClass;
+    private Context pinned;
+    private String search;
+    private int page;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        EntitySnapshot<BaseEntity> snapshot = Datasets.snapshot(type, entities);
+        // nothing is ever loaded from upstream: every call is served from the pinned snapshot
+        snapshotCache = new SnapshotCache(null, SnapshotFileStore.disabled(),
+                Duration.ofDays(1), Duration.ofDays(1), Duration.ofSeconds(1));
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+        service = new EntityQueryService(snapshotCache, new PageResponseCache(0, 0), null,
+                new QueryEngine(metrics, 1024), metrics);
+        entityClass = (Class<BaseEntity>) type.getEntityClass();
+        pinned = SnapshotCache.pin(Context.empty(), snapshot);
+        search = Datasets.search(hitRate);
+
+        int matches = search.isEmpty() ? entities : snapshot.getSearchIndex().search(search).length;
+        page = "last".equals(depth) ? Math.max(1, (matches + pageSize - 1) / pageSize) : 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        snapshotCache.shutdown();
+    }
+
+    @Benchmark
+    public PageResponse<BaseEntity> getEntities() {
+        return service.getEntities(entityClass, page, pageSize, search, sortKey, direction)
+                .contextWrite(pinned)
+                .block();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.swapi.benchmarks;
+
+import com.example.swapi.model.BaseEntity;
+import com.example.swapi.model.EntityType;
+import com.example.swapi.model.UrlDictionary;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the retained heap of a snapshot's entities before and after their relationship URLs are encoded
+ * into a {@link UrlDictionary}, which is what JMH's allocation profiler cannot show.
+ * <p>
+ * Run it with a single-threaded collector so the heap readings after each full collection are exact:
+ * {@code java -XX:+UseSerialGC -cp target/benchmarks.jar com.example.swapi.benchmarks.SnapshotFootprint [entities]}
+ */
+public final class SnapshotFootprint {
+
+    private SnapshotFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        for (EntityType type : EntityType.values()) {
+            long base = retainedHeap();
+            List<BaseEntity> entities = Datasets.entities(type, size);
+            long plain = retainedHeap() - base;
+
+            UrlDictionary urls = new UrlDictionary();
+            List<BaseEntity> encodedEntities = new ArrayList<>(entities.size());
+            for (BaseEntity entity : entities) {
+                encodedEntities.add(entity.withEncodedUrls(urls));
+            }
+            // only the encoded copies stay reachable, as in a snapshot
+            entities = encodedEntities;
+            long encoded = retainedHeap() - base;
+
+            System.out.printf(Locale.ROOT, "%-8s %,d entities: %,d bytes plain, %,d bytes encoded (%d distinct URLs), %+.1f%%%n",
+                    type.getPath(), entities.size(), plain, encoded, urls.size(), 100.0 * (encoded - plain) / plain);
+        }
+    }
+
+    private static long retainedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}